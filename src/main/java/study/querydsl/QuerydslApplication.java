@@ -4,18 +4,28 @@ import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import study.querydsl.global.deadline.DeadlineJPAQueryFactory;
+import study.querydsl.global.nativeimage.QuerydslRuntimeHints;
 
+@EnableScheduling
 @SpringBootApplication
+@ImportRuntimeHints(QuerydslRuntimeHints.class)
 public class QuerydslApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(QuerydslApplication.class, args);
+		SpringApplication application = new SpringApplication(QuerydslApplication.class);
+		// 기동 단계별 시간을 기록한다. StartupReport 와 /actuator/startup 에서 본다.
+		application.setApplicationStartup(new BufferingApplicationStartup(4096));
+		application.run(args);
 	}
 
 	@Bean
 	JPAQueryFactory jpaQueryFactory(EntityManager em){
-		return new JPAQueryFactory(em);
+		return new DeadlineJPAQueryFactory(em);
 	}
 
 }
@@ -3,34 +3,120 @@ package study.querydsl.domain.member.controller;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import study.querydsl.domain.member.dto.MemberChangesDto;
+import study.querydsl.domain.member.dto.MemberDto;
+import study.querydsl.domain.member.dto.MemberFacetsDto;
+import study.querydsl.domain.member.dto.MemberSaveRequest;
 import study.querydsl.domain.member.dto.MemberSearchCondition;
 import study.querydsl.domain.member.dto.MemberTeamDto;
+import study.querydsl.domain.member.repository.MemberChangeRepository;
+import study.querydsl.domain.member.repository.MemberField;
 import study.querydsl.domain.member.repository.MemberJpaRepository;
 import study.querydsl.domain.member.repository.MemberRepository;
+import study.querydsl.domain.member.repository.MemberSearchRepository;
+import study.querydsl.global.bulkhead.Bulkhead;
+import study.querydsl.global.shard.ShardOperations;
 
+import java.net.URI;
 import java.util.List;
+import java.util.Map;
+
+import static org.springframework.util.StringUtils.hasText;
 
 @RequiredArgsConstructor
 @RestController
 public class MemberController {
 
+    private static final int MAX_CHANGES_PAGE = 1000;
+
     private final MemberJpaRepository memberJpaRepository;
     private final MemberRepository memberRepository;
+    private final MemberSearchRepository memberSearchRepository;
+    private final MemberChangeRepository memberChangeRepository;
+    private final ShardOperations shardOperations;
 
+    @Bulkhead("member-search-v1")
     @GetMapping("/v1/members")
     public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition){
+        // shard 를 쓰면 scatter-gather 로 간다.
+        if (shardOperations.enabled()) {
+            return memberSearchRepository.search(condition);
+        }
         return memberJpaRepository.search(condition);
     }
 
+    /**
+     * member 를 저장하고 member_id 를 내려준다. write-behind 가 켜져 있으면 다른 요청과 묶어서 insert 가 커밋된 뒤 응답한다.
+     * ack 는 write-behind.ack-timeout 안에 오지 않으면 실패로 끝나고, 실패 원인은 GlobalExceptionHandler 가 풀어서 응답한다.
+     */
+    @Bulkhead("member-save")
+    @PostMapping("/v1/members")
+    public ResponseEntity<Long> saveMember(@RequestBody MemberSaveRequest request){
+        if (!hasText(request.getUsername())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "username is required");
+        }
+        Long memberId = memberJpaRepository.save(request.getUsername(), request.getAge(), request.getTeamId()).join();
+        return ResponseEntity.created(URI.create("/v1/members/" + memberId)).body(memberId);
+    }
+
+    /**
+     * since 이후에 바뀐(삭제 포함) member. 전체 목록을 다시 받는 대신 응답의 nextCursor 로 이어서 받는다.
+     */
+    @Bulkhead("member-changes")
+    @GetMapping("/v1/members/changes")
+    public MemberChangesDto memberChanges(@RequestParam(required = false) String since,
+                                          @RequestParam(defaultValue = "100") int size){
+        if (size < 1 || size > MAX_CHANGES_PAGE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be between 1 and " + MAX_CHANGES_PAGE);
+        }
+        return memberChangeRepository.findChanges(since, size);
+    }
+
+    @Bulkhead("member-find")
+    @GetMapping("/v1/members/{id}")
+    public MemberDto findMember(@PathVariable Long id){
+        return memberJpaRepository.findById(id)
+                .map(member -> new MemberDto(member.getUsername(), member.getAge()))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    }
+
+    @Bulkhead("member-search-v2")
     @GetMapping("/v2/members")
     public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition condition, Pageable pageable){
-        return memberRepository.searchPageSimple(condition, pageable);
+        return memberSearchRepository.searchPageSimple(condition, pageable);
     }
 
+    @Bulkhead("member-search-v3")
     @GetMapping("/v3/members")
     public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable){
-        return memberRepository.searchPageComplex(condition, pageable);
+        return memberSearchRepository.searchPageComplex(condition, pageable);
+    }
+
+    /**
+     * 검색 페이지와 team / 나이대 facet 을 한 번에 내려준다.
+     */
+    @Bulkhead("member-facets")
+    @GetMapping("/v3/members/facets")
+    public MemberFacetsDto searchMemberFacets(MemberSearchCondition condition, Pageable pageable){
+        return memberSearchRepository.searchFacets(condition, pageable);
+    }
+
+    /**
+     * /v3/members?fields=username,age 처럼 필요한 컬럼만 내려준다.
+     */
+    @Bulkhead("member-search-v3")
+    @GetMapping(value = "/v3/members", params = "fields")
+    public Page<Map<String, Object>> searchMemberV3Fields(MemberSearchCondition condition, @RequestParam String fields, Pageable pageable){
+        shardOperations.rejectIfSharded("member search with fields");
+        return memberRepository.searchPageFields(condition, MemberField.parse(fields), pageable);
     }
 }
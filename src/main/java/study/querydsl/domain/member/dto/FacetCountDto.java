@@ -0,0 +1,17 @@
+package study.querydsl.domain.member.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * facet 값 하나와 그 값에 해당하는 member 수. team 이 없는 member 는 value 가 null 이다.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetCountDto {
+
+    private String value;
+    private long count;
+}
@@ -0,0 +1,23 @@
+package study.querydsl.domain.member.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * deleted=true 면 삭제된 member 의 tombstone 이다. 받는 쪽은 그 id 를 지우면 된다.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MemberChangeDto {
+
+    private Long memberId;
+    private String username;
+    private int age;
+    private Long teamId;
+    private LocalDateTime updatedAt;
+    private boolean deleted;
+}
@@ -0,0 +1,21 @@
+package study.querydsl.domain.member.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * nextCursor 를 다음 요청의 since 로 넘긴다. 바뀐 것이 없으면 받은 cursor 를 그대로 돌려준다.
+ * hasMore 가 true 면 바로 이어서 요청하고, false 면 다음 주기에 요청한다.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MemberChangesDto {
+
+    private List<MemberChangeDto> changes;
+    private String nextCursor;
+    private boolean hasMore;
+}
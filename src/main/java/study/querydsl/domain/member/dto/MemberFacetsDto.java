@@ -0,0 +1,19 @@
+package study.querydsl.domain.member.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * 검색 결과 페이지 + 같은 조건의 team.name 별 / 나이대별 member 수.
+ */
+@Data
+@AllArgsConstructor
+public class MemberFacetsDto {
+
+    private Page<MemberTeamDto> page;
+    private List<FacetCountDto> teams;
+    private List<FacetCountDto> ageBuckets;
+}
@@ -0,0 +1,14 @@
+package study.querydsl.domain.member.dto;
+
+import lombok.Data;
+
+/**
+ * POST /v1/members 요청. teamId 가 없으면 팀 없이 저장한다.
+ */
+@Data
+public class MemberSaveRequest {
+
+    private String username;
+    private int age;
+    private Long teamId;
+}
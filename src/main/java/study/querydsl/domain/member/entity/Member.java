@@ -6,13 +6,34 @@ import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.SQLRestriction;
 import study.querydsl.domain.team.entity.Team;
+import study.querydsl.global.audit.BaseTimeEntity;
+import study.querydsl.global.cache.SearchCacheInvalidationListener;
+
+import java.util.List;
 
 @Entity
+@EntityListeners(SearchCacheInvalidationListener.class)
+@Table(indexes = {
+        @Index(name = "idx_member_username", columnList = "username"),
+        // count 쿼리용 커버링 인덱스 (InnoDB 보조 인덱스 끝에는 PK 가 붙는다)
+        // @SQLRestriction 이 모든 조회에 deleted = false 를 붙이므로 deleted 도 들어 있어야 row 를 읽지 않는다.
+        // 등호 조건인 deleted 를 age 앞에 둬서 age 범위 조건과 age 정렬도 인덱스 순서대로 끝난다.
+        @Index(name = "idx_member_deleted_age", columnList = "deleted, age"),
+        @Index(name = "idx_member_username_deleted_age", columnList = "username, deleted, age"),
+        @Index(name = "idx_member_team_deleted_age", columnList = "team_id, deleted, age"),
+        // 변경분 조회(/v1/members/changes)의 keyset (updated_at, member_id)
+        @Index(name = "idx_member_updated_at", columnList = "updated_at, member_id")
+})
+// 삭제는 tombstone 으로 남겨서 변경분 조회가 삭제도 내려줄 수 있게 한다. 엔티티 조회에서는 보이지 않는다. (delete())
+@SQLRestriction("deleted = false")
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"})
-public class Member {
+public class Member extends BaseTimeEntity {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -25,6 +46,9 @@ public class Member {
     @JoinColumn(name = "team_id")
     private Team team;
 
+    @ColumnDefault("false")
+    @Column(nullable = false)
+    private boolean deleted;
 
     public Member(String username){
         this(username, 0);
@@ -42,8 +66,28 @@ public class Member {
         }
     }
 
+    public void changeAge(int age) {
+        this.age = age;
+    }
+
+    /**
+     * row 를 지우지 않고 tombstone 으로 남긴다. 다른 수정처럼 dirty checking 으로 update 되므로
+     * updated_at 도 auditing 이 같은 JVM 시계로 올린다. (변경분 조회의 cutoff 와 같은 시계)
+     * MemberRepository 의 delete 들도 이것으로 간다. em.remove 는 row 를 지워서 변경분 조회에 삭제가 나가지 않으므로 쓰지 않는다.
+     */
+    public void delete() {
+        this.deleted = true;
+    }
+
+    /**
+     * 바이트코드 향상의 연관관계 관리가 켜져 있으면 this.team 대입만으로 초기화된 team.members 에 추가된다.
+     * 초기화되지 않은 컬렉션은 건드리지 않으므로(지연 로딩 유지) 그때만, 또는 아직 없을 때만 직접 추가한다.
+     */
     private void changeTeam(Team team) {
         this.team = team;
-        team.getMembers().add(this);
+        List<Member> members = team.getMembers();
+        if (!Hibernate.isInitialized(members) || !members.contains(this)) {
+            members.add(this);
+        }
     }
 }
@@ -0,0 +1,8 @@
+package study.querydsl.domain.member.repository;
+
+public class InvalidCursorException extends IllegalArgumentException {
+
+    public InvalidCursorException(String cursor) {
+        super("invalid cursor '" + cursor + "'");
+    }
+}
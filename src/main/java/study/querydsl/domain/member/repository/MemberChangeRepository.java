@@ -0,0 +1,98 @@
+package study.querydsl.domain.member.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.MappingProjection;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.sql.SQLQueryFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import study.querydsl.domain.member.dto.MemberChangeDto;
+import study.querydsl.domain.member.dto.MemberChangesDto;
+import study.querydsl.global.shard.ShardOperations;
+import study.querydsl.sql.SMember;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+import static study.querydsl.global.deadline.DeadlineQueries.withShare;
+
+/**
+ * cursor 이후에 바뀐 member 를 (updated_at, member_id) 순서로 내려준다. 삭제된 member 는 tombstone 으로 함께 나간다.
+ * 엔티티 조회는 @SQLRestriction 으로 tombstone 을 못 보므로 querydsl-sql 로 테이블을 바로 읽는다.
+ *
+ * 늦게 커밋된 트랜잭션은 이미 지나간 updated_at 으로 들어올 수 있다. 그래서 settle-delay 보다 최근 row 는 아직 내려주지 않고
+ * cursor 도 그 앞에서 멈춘다. settle-delay 는 가장 긴 쓰기 트랜잭션과 서버 간 시계 차이보다 길게 잡는다.
+ *
+ * shard 를 쓰면 shard 마다 cursor 뒤의 size + 1 건을 읽어서 같은 순서로 병합한다. (keyset 이라 각 shard 의 앞쪽만 보면 된다)
+ */
+@Repository
+@RequiredArgsConstructor
+public class MemberChangeRepository {
+
+    private static final SMember m = SMember.member;
+    private static final MemberChangeRow MEMBER_CHANGE_ROW = new MemberChangeRow();
+    private static final Comparator<MemberChangeDto> CHANGE_ORDER =
+            Comparator.comparing(MemberChangeDto::getUpdatedAt).thenComparing(MemberChangeDto::getMemberId);
+
+    private final SQLQueryFactory sqlQueryFactory;
+    private final ShardOperations shardOperations;
+
+    @Value("${member.changes.settle-delay:PT2S}")
+    private Duration settleDelay;
+
+    public MemberChangesDto findChanges(String since, int size) {
+        MemberChangeCursor cursor = MemberChangeCursor.decode(since);
+        LocalDateTime settled = LocalDateTime.now().minus(settleDelay);
+
+        List<MemberChangeDto> rows = shardOperations.readOnEachShard(() -> withShare(sqlQueryFactory
+                        .select(MEMBER_CHANGE_ROW)
+                        .from(m)
+                        .where(after(cursor), m.updatedAt.lt(settled))
+                        .orderBy(m.updatedAt.asc(), m.memberId.asc())
+                        .limit(size + 1L), 1.0)
+                        .fetch())
+                .stream()
+                .flatMap(List::stream)
+                .sorted(CHANGE_ORDER)
+                .limit(size + 1L)
+                .toList();
+
+        boolean hasMore = rows.size() > size;
+        List<MemberChangeDto> changes = hasMore ? rows.subList(0, size) : rows;
+        if (changes.isEmpty()) {
+            return new MemberChangesDto(changes, since, false);
+        }
+
+        MemberChangeDto last = changes.get(changes.size() - 1);
+        return new MemberChangesDto(changes, new MemberChangeCursor(last.getUpdatedAt(), last.getMemberId()).encode(), hasMore);
+    }
+
+    /**
+     * (updated_at, member_id) > (?, ?) 를 인덱스를 타는 OR 로 푼다.
+     */
+    private BooleanExpression after(MemberChangeCursor cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        return m.updatedAt.gt(cursor.updatedAt())
+                .or(m.updatedAt.eq(cursor.updatedAt()).and(m.memberId.gt(cursor.memberId())));
+    }
+
+    private static final class MemberChangeRow extends MappingProjection<MemberChangeDto> {
+
+        private MemberChangeRow() {
+            super(MemberChangeDto.class, m.memberId, m.username, m.age, m.teamId, m.updatedAt, m.deleted);
+        }
+
+        @Override
+        protected MemberChangeDto map(Tuple row) {
+            Integer age = row.get(m.age);
+            Boolean deleted = row.get(m.deleted);
+            return new MemberChangeDto(row.get(m.memberId), row.get(m.username), age == null ? 0 : age,
+                    row.get(m.teamId), row.get(m.updatedAt), Boolean.TRUE.equals(deleted));
+        }
+    }
+}
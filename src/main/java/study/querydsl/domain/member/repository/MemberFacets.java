@@ -0,0 +1,94 @@
+package study.querydsl.domain.member.repository;
+
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberExpression;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import study.querydsl.domain.member.dto.FacetCountDto;
+import study.querydsl.domain.member.dto.MemberFacetsDto;
+import study.querydsl.domain.member.dto.MemberTeamDto;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * (team.name, 나이대) 별 member 수를 모아서 facet 목록을 만든다.
+ * JPA / SQL 검색과 shard 병합이 같은 나이대 경계와 같은 정렬을 쓰도록 한곳에 둔다.
+ */
+final class MemberFacets {
+
+    /** 나이대 경계: 0-9, 10-19, ..., 50-59, 60+ */
+    private static final int[] AGE_BUCKET_BOUNDS = {10, 20, 30, 40, 50, 60};
+
+    private long total;
+    private final Map<String, Long> teamCounts = new HashMap<>();
+    private final Map<Integer, Long> bucketCounts = new TreeMap<>();
+
+    void add(String teamName, int bucket, long count) {
+        total += count;
+        teamCounts.merge(teamName, count, Long::sum);
+        bucketCounts.merge(bucket, count, Long::sum);
+    }
+
+    long total() {
+        return total;
+    }
+
+    MemberFacetsDto toDto(List<MemberTeamDto> content, Pageable pageable) {
+        List<FacetCountDto> teams = teamCounts.entrySet().stream()
+                .map(entry -> new FacetCountDto(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingLong(FacetCountDto::getCount).reversed()
+                        .thenComparing(FacetCountDto::getValue, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+        List<FacetCountDto> ageBuckets = bucketCounts.entrySet().stream()
+                .map(entry -> new FacetCountDto(ageBucketLabel(entry.getKey()), entry.getValue()))
+                .toList();
+
+        return new MemberFacetsDto(new PageImpl<>(content, pageable, total), teams, ageBuckets);
+    }
+
+    /**
+     * shard 마다 센 facet 을 값별로 더한다. 같은 이름의 팀이 여러 shard 에 있으면 한 값으로 합쳐진다.
+     * total 은 나이대 합이다. (나이대는 빠짐없이 나뉘므로 각 shard 의 total 을 더한 것과 같다)
+     */
+    static MemberFacets merge(List<MemberFacetsDto> parts) {
+        Map<String, Integer> buckets = new HashMap<>();
+        for (int i = 0; i <= AGE_BUCKET_BOUNDS.length; i++) {
+            buckets.put(ageBucketLabel(i), i);
+        }
+
+        MemberFacets merged = new MemberFacets();
+        for (MemberFacetsDto part : parts) {
+            part.getTeams().forEach(facet -> merged.teamCounts.merge(facet.getValue(), facet.getCount(), Long::sum));
+            for (FacetCountDto facet : part.getAgeBuckets()) {
+                merged.total += facet.getCount();
+                merged.bucketCounts.merge(buckets.get(facet.getValue()), facet.getCount(), Long::sum);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * 나이대 번호. 경계값을 파라미터가 아닌 리터럴로 넣어야 select 와 group by 의 SQL 이 똑같아진다.
+     * JPA 의 member.age 에도, querydsl-sql 의 member.age 컬럼에도 쓴다.
+     */
+    static NumberExpression<Integer> ageBucket(NumberExpression<Integer> age) {
+        StringBuilder template = new StringBuilder("case");
+        for (int i = 0; i < AGE_BUCKET_BOUNDS.length; i++) {
+            template.append(" when {0} < ").append(AGE_BUCKET_BOUNDS[i]).append(" then ").append(i);
+        }
+        template.append(" else ").append(AGE_BUCKET_BOUNDS.length).append(" end");
+        return Expressions.numberTemplate(Integer.class, template.toString(), age);
+    }
+
+    static String ageBucketLabel(int bucket) {
+        int from = bucket == 0 ? 0 : AGE_BUCKET_BOUNDS[bucket - 1];
+        if (bucket == AGE_BUCKET_BOUNDS.length) {
+            return from + "+";
+        }
+        return from + "-" + (AGE_BUCKET_BOUNDS[bucket] - 1);
+    }
+}
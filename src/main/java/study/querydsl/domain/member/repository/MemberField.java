@@ -0,0 +1,51 @@
+package study.querydsl.domain.member.repository;
+
+import com.querydsl.core.types.Expression;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+import static study.querydsl.domain.member.entity.QMember.member;
+import static study.querydsl.domain.team.entity.QTeam.team;
+
+/**
+ * fields= 파라미터로 고를 수 있는 컬럼.
+ * teamId 는 member.team_id FK 를 그대로 읽으므로 team 조인이 필요 없다.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum MemberField {
+
+    MEMBER_ID("memberId", member.id, false),
+    USERNAME("username", member.username, false),
+    AGE("age", member.age, false),
+    TEAM_ID("teamId", member.team.id, false),
+    TEAM_NAME("teamName", team.name, true);
+
+    private final String property;
+    private final Expression<?> expression;
+    private final boolean teamJoinRequired;
+
+    public static Set<MemberField> parse(String fields) {
+        Set<MemberField> result = EnumSet.noneOf(MemberField.class);
+        for (String property : fields.split(",")) {
+            String trimmed = property.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+
+            result.add(Arrays.stream(values())
+                    .filter(field -> field.property.equals(trimmed))
+                    .findFirst()
+                    .orElseThrow(() -> new UnsupportedFieldException(trimmed)));
+        }
+
+        if (result.isEmpty()) {
+            return EnumSet.allOf(MemberField.class);
+        }
+        return result;
+    }
+}
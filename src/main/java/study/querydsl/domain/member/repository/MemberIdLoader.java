@@ -0,0 +1,87 @@
+package study.querydsl.domain.member.repository;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.domain.member.entity.Member;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static study.querydsl.domain.member.entity.QMember.member;
+import static study.querydsl.domain.team.entity.QTeam.team;
+
+/**
+ * id 목록으로 Member 를 한 번에 가져온다.
+ * 1. 중복 id 를 제거하고
+ * 2. 영속성 컨텍스트에 이미 있는 엔티티는 쿼리 없이 그대로 쓰고
+ * 3. 나머지는 CHUNK_SIZE 개씩 IN 쿼리로 가져온 뒤
+ * 4. 처음 넘겨받은 id 순서대로 돌려준다. (없는 id 는 빠진다)
+ */
+@Component
+@RequiredArgsConstructor
+class MemberIdLoader {
+
+    /**
+     * in_clause_parameter_padding 이 2의 거듭제곱으로 맞추므로 꽉 찬 chunk 는 padding 없이 그대로 나간다.
+     */
+    static final int CHUNK_SIZE = 512;
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+
+    @Transactional(readOnly = true)
+    public List<Member> load(Collection<Long> ids, boolean fetchTeam) {
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        uniqueIds.remove(null);
+
+        Map<Long, Member> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        collectManaged(uniqueIds, fetchTeam, found, missing);
+
+        for (int from = 0; from < missing.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = missing.subList(from, Math.min(from + CHUNK_SIZE, missing.size()));
+
+            JPAQuery<Member> query = queryFactory.selectFrom(member);
+            if (fetchTeam) {
+                query.leftJoin(member.team, team).fetchJoin();
+            }
+            for (Member loaded : query.where(member.id.in(chunk)).fetch()) {
+                found.put(loaded.getId(), loaded);
+            }
+        }
+
+        return uniqueIds.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private void collectManaged(Set<Long> ids, boolean fetchTeam, Map<Long, Member> found, List<Long> missing) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(Member.class);
+        PersistenceContext persistenceContext = session.getPersistenceContextInternal();
+
+        for (Long id : ids) {
+            Object managed = persistenceContext.getEntity(session.generateEntityKey(id, persister));
+            if (managed instanceof Member managedMember && (!fetchTeam || Hibernate.isInitialized(managedMember.getTeam()))) {
+                found.put(id, managedMember);
+            } else {
+                missing.add(id);
+            }
+        }
+    }
+}
@@ -6,52 +6,121 @@ import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import study.querydsl.domain.member.dto.MemberSearchCondition;
 import study.querydsl.domain.member.dto.MemberTeamDto;
 import study.querydsl.domain.member.dto.QMemberTeamDto;
 import study.querydsl.domain.member.entity.Member;
+import study.querydsl.domain.team.entity.Team;
+import study.querydsl.global.jpa.ReadOnlyQueries;
+import study.querydsl.global.shard.ShardOperations;
+import study.querydsl.global.writebehind.MemberWriteBehindBuffer;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.springframework.util.StringUtils.hasText;
 import static study.querydsl.domain.member.entity.QMember.member;
 import static study.querydsl.domain.team.entity.QTeam.team;
+import static study.querydsl.global.jpa.ReadOnlyQueries.readOnly;
 
 @Repository
 @RequiredArgsConstructor
 public class MemberJpaRepository {
     private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final MemberIdLoader memberIdLoader;
+    private final ShardOperations shardOperations;
+    private final ObjectProvider<MemberWriteBehindBuffer> writeBehindBuffer;
+
+    /**
+     * shard 를 쓰면 member 의 팀이 있는 shard 에서 저장한다. (그 shard 를 고르지 않은 상태면 트랜잭션을 따로 열고 커밋한다)
+     */
     public void save(Member member) {
-        em.persist(member);
+        Long teamId = member.getTeam() == null ? null : member.getTeam().getId();
+        shardOperations.runOnTeamShard(teamId, () -> em.persist(member));
+    }
+
+    /**
+     * 새 member 를 저장하고 member_id 로 완료되는 future 를 돌려준다.
+     * write-behind.enabled=true 면 MemberWriteBehindBuffer 에 넣고 묶음 insert 가 커밋될 때 완료된다.
+     * 버퍼의 insert 는 호출자의 트랜잭션과 따로 커밋되므로, 트랜잭션 안에서 부르면 버퍼를 거치지 않고 그 트랜잭션에서 바로 insert 한다.
+     */
+    public CompletableFuture<Long> save(String username, int age, Long teamId) {
+        MemberWriteBehindBuffer buffer = writeBehindBuffer.getIfAvailable();
+        if (buffer != null && !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return buffer.save(username, age, teamId);
+        }
+
+        Long memberId = shardOperations.callOnTeamShard(teamId, () -> {
+            Member member = new Member(username, age, teamId == null ? null : em.getReference(Team.class, teamId));
+            em.persist(member);
+            return member.getId();
+        });
+        return CompletableFuture.completedFuture(memberId);
     }
+
+    /**
+     * member_id 로는 shard 를 알 수 없으므로 shard 를 쓰면 모든 shard 에서 찾는다. 이때 돌려준 엔티티는 detached 다.
+     */
     public Optional<Member> findById(Long id) {
-        Member findMember = em.find(Member.class, id);
-        return Optional.ofNullable(findMember);
+        if (!shardOperations.enabled()) {
+            Member findMember = em.find(Member.class, id);
+            return Optional.ofNullable(findMember);
+        }
+        return shardOperations.readOnEachShard(() -> em.find(Member.class, id)).stream()
+                .filter(Objects::nonNull)
+                .findFirst();
+    }
+
+    /**
+     * id 하나마다 em.find 를 반복하지 말고 chunk 단위 IN 쿼리로 가져온다. 입력 순서를 유지한다.
+     */
+    public List<Member> findAllByIds(Collection<Long> ids) {
+        return findAllByIds(ids, false);
     }
+
+    public List<Member> findAllByIds(Collection<Long> ids, boolean fetchTeam) {
+        return memberIdLoader.load(ids, fetchTeam);
+    }
+
+    // 조회 전용 메서드는 ReadOnlyQueries 로 스냅샷과 auto flush 를 끈다.
     public List<Member> findAll() {
-        return em.createQuery("select m from Member m", Member.class)
+        return readOnly(em.createQuery("select m from Member m", Member.class))
                 .getResultList();
     }
 
     // Query Dsl로 수정
     public List<Member> findAll_QueryDsl() {
-        return queryFactory
-                .selectFrom(member)
+        return readOnly(queryFactory
+                .selectFrom(member))
                 .fetch();
     }
+
+    /**
+     * 영속성 컨텍스트 없이 전체를 읽는다. 반환된 Member 의 team 은 초기화되지 않은 프록시라 접근하면 예외가 난다.
+     */
+    public List<Member> findAll_Stateless() {
+        return ReadOnlyQueries.stateless(em, session -> session
+                .createQuery("select m from Member m", Member.class)
+                .getResultList());
+    }
+
     public List<Member> findByUsername(String username) {
-        return em.createQuery("select m from Member m where m.username = :username", Member.class)
+        return readOnly(em.createQuery("select m from Member m where m.username = :username", Member.class))
                 .setParameter("username", username)
                 .getResultList();
     }
 
     public List<Member> findByUsername_QueryDsl(String username){
-        return queryFactory
+        return readOnly(queryFactory
                 .selectFrom(member)
-                .where(member.username.eq(username))
+                .where(member.username.eq(username)))
                 .fetch();
     }
 
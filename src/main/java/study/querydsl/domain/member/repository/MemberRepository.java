@@ -1,11 +1,19 @@
 package study.querydsl.domain.member.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import study.querydsl.domain.member.entity.Member;
 
 import java.util.List;
 
 public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom {
     // select m from Member m where m.username = :username
+    // 조회 전용이라 스냅샷과 auto flush 를 끈다. (ReadOnlyQueries 와 같은 설정)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL")
+    })
     List<Member> findByUsername(String username);
 }
@@ -3,13 +3,26 @@ package study.querydsl.domain.member.repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import study.querydsl.domain.member.dto.MemberSearchCondition;
-import study.querydsl.domain.member.dto.MemberTeamDto;
+import study.querydsl.domain.member.entity.Member;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
-public interface MemberRepositoryCustom {
-    List<MemberTeamDto> search(MemberSearchCondition condition);
-    Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable);
-    Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable);
+public interface MemberRepositoryCustom extends MemberSearchRepository {
+    long searchCount(MemberSearchCondition condition);
+    Page<Map<String, Object>> searchPageFields(MemberSearchCondition condition, Set<MemberField> fields, Pageable pageable);
+    List<Member> findAllByIds(Collection<Long> ids, boolean fetchTeam);
+    long bulkAgePlus(int age);
 
+    // JpaRepository 의 delete 들을 덮어써서 row 를 지우지 않고 tombstone 으로 남긴다. (MemberRepositoryImpl)
+    void delete(Member entity);
+    void deleteById(Long id);
+    void deleteAll(Iterable<? extends Member> entities);
+    void deleteAllById(Iterable<? extends Long> ids);
+    void deleteAll();
+    void deleteAllInBatch(Iterable<Member> entities);
+    void deleteAllByIdInBatch(Iterable<Long> ids);
+    void deleteAllInBatch();
 }
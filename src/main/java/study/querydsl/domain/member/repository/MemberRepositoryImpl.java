@@ -1,7 +1,10 @@
 package study.querydsl.domain.member.repository;
 
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Expression;
 import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.NumberExpression;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
@@ -10,28 +13,51 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.cache.annotation.Cacheable;
+import study.querydsl.domain.member.dto.MemberFacetsDto;
 import study.querydsl.domain.member.dto.MemberSearchCondition;
 import study.querydsl.domain.member.dto.MemberTeamDto;
 import study.querydsl.domain.member.dto.QMemberTeamDto;
 import study.querydsl.domain.member.entity.Member;
+import study.querydsl.domain.team.service.TeamStatsService;
+import study.querydsl.global.cache.CacheConfig;
+import study.querydsl.global.cache.MemberSearchCacheEvictor;
+import study.querydsl.global.deadline.DeadlineProperties;
+import study.querydsl.global.shard.ShardOperations;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static study.querydsl.domain.member.entity.QMember.member;
 import static study.querydsl.domain.team.entity.QTeam.team;
+import static study.querydsl.global.deadline.DeadlineQueries.pageOf;
+import static study.querydsl.global.deadline.DeadlineQueries.withShare;
 
 @RequiredArgsConstructor
 @Slf4j
 public class MemberRepositoryImpl implements MemberRepositoryCustom{
 
+    private static final NumberExpression<Integer> AGE_BUCKET = MemberFacets.ageBucket(member.age);
+
+    private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final MemberIdLoader memberIdLoader;
+    private final MemberSearchCacheEvictor memberSearchCacheEvictor;
+    private final TeamStatsService teamStatsService;
+    private final DeadlineProperties deadlineProperties;
+    private final ShardOperations shardOperations;
 
 //    public MemberRepositoryImpl(EntityManager em){
 //        this.queryFactory = new JPAQueryFactory(em);
 //    }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.MEMBER_SEARCH, keyGenerator = "memberSearchKeyGenerator")
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
         return queryFactory
                 .select(new QMemberTeamDto(
@@ -49,6 +75,7 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom{
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.MEMBER_SEARCH, keyGenerator = "memberSearchKeyGenerator")
     public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
         List<MemberTeamDto> content = queryFactory
                 .select(new QMemberTeamDto(
@@ -65,6 +92,7 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom{
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe()))
+                .orderBy(MemberSortOrders.of(pageable.getSort()))
                 .offset(pageable.getOffset())
                 .limit(pageable.getPageSize())
                 .fetch();
@@ -76,8 +104,10 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom{
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.MEMBER_SEARCH, keyGenerator = "memberSearchKeyGenerator", unless = CacheConfig.UNLESS_UNCOUNTED)
     public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
-        List<MemberTeamDto> content = queryFactory
+        // content 는 남은 시간의 일부만 쓰고, count 는 content 가 끝난 뒤 남은 시간을 쓴다. (1초도 안 남았으면 건너뛴다)
+        List<MemberTeamDto> content = withShare(queryFactory
                 .select(new QMemberTeamDto(
                         member.id,
                         member.username,
@@ -89,22 +119,245 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom{
                 .leftJoin(member.team, team)
                 // where 방식이 더 좋은 이유는 무엇일까? 재사용성이 좋아진다. 이게 가장 큰 객체지향의 특징인데 이걸 이용할 수 있음!
                 .where(usernameEq(condition.getUsername()), teamNameEq(condition.getTeamName()), ageGoe(condition.getAgeGoe()), ageLoe(condition.getAgeLoe()))
+                .orderBy(MemberSortOrders.of(pageable.getSort()))
                 .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
+                .limit(pageable.getPageSize()), deadlineProperties.getContentShare())
                 .fetch();
 
-        JPAQuery<Long> countQuery = queryFactory
-                .select(member.count())
+        JPAQuery<Long> countQuery = countQuery(condition);
+
+        return pageOf(content, pageable, countQuery);
+    }
+
+    /**
+     * 요청한 컬럼만 select 하고, team 컬럼도 teamName 조건도 없으면 team 조인을 아예 하지 않는다.
+     */
+    @Override
+    @Cacheable(cacheNames = CacheConfig.MEMBER_SEARCH, keyGenerator = "memberSearchKeyGenerator", unless = CacheConfig.UNLESS_UNCOUNTED)
+    public Page<Map<String, Object>> searchPageFields(MemberSearchCondition condition, Set<MemberField> fields, Pageable pageable) {
+        boolean teamJoinRequired = condition.getTeamName() != null
+                || fields.stream().anyMatch(MemberField::isTeamJoinRequired);
+
+        JPAQuery<Tuple> contentQuery = queryFactory
+                .select(fields.stream().map(MemberField::getExpression).toArray(Expression[]::new))
+                .from(member);
+        if (teamJoinRequired) {
+            contentQuery.leftJoin(member.team, team);
+        }
+
+        List<Map<String, Object>> content = withShare(contentQuery
+                .where(usernameEq(condition.getUsername()), teamNameEq(condition.getTeamName()), ageGoe(condition.getAgeGoe()), ageLoe(condition.getAgeLoe()))
+                .orderBy(MemberSortOrders.of(pageable.getSort()))
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize()), deadlineProperties.getContentShare())
+                .fetch()
+                .stream()
+                .map(tuple -> toMap(tuple, fields))
+                .toList();
+
+        JPAQuery<Long> countQuery = countQuery(condition);
+
+        return pageOf(content, pageable, countQuery);
+    }
+
+    /**
+     * 페이지와 facet 을 쿼리 두 번으로 만든다.
+     * (team.name, 나이대) 로 한 번 group by 해서 team facet, 나이대 facet, total 을 모두 합산하므로 count 쿼리를 따로 하지 않는다.
+     * offset 이 total 을 넘으면 content 쿼리는 건너뛴다.
+     */
+    @Override
+    @Cacheable(cacheNames = CacheConfig.MEMBER_SEARCH, keyGenerator = "memberSearchKeyGenerator")
+    public MemberFacetsDto searchFacets(MemberSearchCondition condition, Pageable pageable) {
+        NumberExpression<Long> memberCount = member.id.count();
+        List<Tuple> groups = withShare(queryFactory
+                .select(team.name, AGE_BUCKET, memberCount)
                 .from(member)
                 .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                );
+                .where(usernameEq(condition.getUsername()), teamNameEq(condition.getTeamName()), ageGoe(condition.getAgeGoe()), ageLoe(condition.getAgeLoe()))
+                .groupBy(team.name, AGE_BUCKET), deadlineProperties.getContentShare())
+                .fetch();
+
+        MemberFacets facets = new MemberFacets();
+        groups.forEach(group -> facets.add(group.get(team.name), group.get(AGE_BUCKET), group.get(memberCount)));
+
+        List<MemberTeamDto> content = List.of();
+        if (pageable.getOffset() < facets.total()) {
+            content = queryFactory
+                    .select(new QMemberTeamDto(
+                            member.id,
+                            member.username,
+                            member.age,
+                            team.id,
+                            team.name
+                    ))
+                    .from(member)
+                    .leftJoin(member.team, team)
+                    .where(usernameEq(condition.getUsername()), teamNameEq(condition.getTeamName()), ageGoe(condition.getAgeGoe()), ageLoe(condition.getAgeLoe()))
+                    .orderBy(MemberSortOrders.of(pageable.getSort()))
+                    .offset(pageable.getOffset())
+                    .limit(pageable.getPageSize())
+                    .fetch();
+        }
+
+        return facets.toDto(content, pageable);
+    }
+
+    /**
+     * age 이상인 멤버 나이를 한 번에 +1 한다. shard 를 쓰면 shard 마다 트랜잭션 하나씩 돈다.
+     * 벌크 update 는 엔티티 리스너를 거치지 않으므로 캐시와 팀 집계, updated_at 을 직접 갱신하고, 영속성 컨텍스트도 비워서 이전 값을 보지 않게 한다.
+     */
+    @Override
+    public long bulkAgePlus(int age) {
+        LocalDateTime now = LocalDateTime.now();
+        long count = shardOperations.callOnEachShard(() -> {
+            em.flush();
+            long updated = queryFactory
+                    .update(member)
+                    .set(member.age, member.age.add(1))
+                    .set(member.updatedAt, now)
+                    .where(member.age.goe(age))
+                    .execute();
+            em.clear();
+            return updated;
+        }).stream().mapToLong(Long::longValue).sum();
+
+        memberSearchCacheEvictor.evictAll();
+        teamStatsService.reconcileAfterCommit();
+        return count;
+    }
+
+    /**
+     * 삭제는 Member#delete() 로 tombstone 만 남긴다. 엔티티 수정이므로 updated_at, 캐시 무효화, 팀 집계는 다른 수정처럼 리스너가 맡는다.
+     * id 로는 어느 shard 인지 알 수 없으므로 shard 마다 찾아서 지운다. 없는 id 는 무시한다. (SimpleJpaRepository 와 같다)
+     */
+    @Override
+    public void delete(Member entity) {
+        if (entity.getId() != null) {
+            deleteAllById(List.of(entity.getId()));
+        }
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        deleteAllById(List.of(id));
+    }
 
-        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchOne);
+    @Override
+    public void deleteAll(Iterable<? extends Member> entities) {
+        deleteAllById(ids(entities));
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends Long> ids) {
+        List<Long> idList = new ArrayList<>();
+        ids.forEach(idList::add);
+        if (idList.isEmpty()) {
+            return;
+        }
+        shardOperations.runOnEachShard(() -> queryFactory
+                .selectFrom(member)
+                .where(member.id.in(idList))
+                .fetch()
+                .forEach(Member::delete));
+    }
+
+    @Override
+    public void deleteAll() {
+        shardOperations.runOnEachShard(() -> queryFactory
+                .selectFrom(member)
+                .fetch()
+                .forEach(Member::delete));
+    }
+
+    /**
+     * InBatch 는 엔티티를 읽지 않고 벌크 update 한 번으로 tombstone 을 남긴다. bulkAgePlus 처럼 캐시와 팀 집계, updated_at 을 직접 갱신한다.
+     */
+    @Override
+    public void deleteAllInBatch(Iterable<Member> entities) {
+        deleteAllByIdInBatch(ids(entities));
+    }
+
+    @Override
+    public void deleteAllByIdInBatch(Iterable<Long> ids) {
+        List<Long> idList = new ArrayList<>();
+        ids.forEach(idList::add);
+        if (!idList.isEmpty()) {
+            softDeleteInBatch(member.id.in(idList));
+        }
+    }
+
+    @Override
+    public void deleteAllInBatch() {
+        softDeleteInBatch(null);
+    }
+
+    private void softDeleteInBatch(Predicate where) {
+        LocalDateTime now = LocalDateTime.now();
+        shardOperations.runOnEachShard(() -> {
+            em.flush();
+            queryFactory
+                    .update(member)
+                    .set(member.deleted, true)
+                    .set(member.updatedAt, now)
+                    .where(where)
+                    .execute();
+            em.clear();
+        });
+
+        memberSearchCacheEvictor.evictAll();
+        teamStatsService.reconcileAfterCommit();
+    }
+
+    private List<Long> ids(Iterable<? extends Member> entities) {
+        List<Long> ids = new ArrayList<>();
+        for (Member entity : entities) {
+            if (entity.getId() != null) {
+                ids.add(entity.getId());
+            }
+        }
+        return ids;
+    }
+
+    @Override
+    public List<Member> findAllByIds(Collection<Long> ids, boolean fetchTeam) {
+        return memberIdLoader.load(ids, fetchTeam);
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.MEMBER_SEARCH, keyGenerator = "memberSearchKeyGenerator")
+    public long searchCount(MemberSearchCondition condition) {
+        Long count = countQuery(condition).fetchOne();
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * count 쿼리는 content 와 달리 team 컬럼이 필요 없다.
+     * teamName 조건이 있을 때만 team 을 조인하고(조건이 null team 을 걸러내므로 inner join), PK 로 센다.
+     * 그래야 옵티마이저가 member 테이블 대신 좁은 보조 인덱스만 읽고 답할 수 있다.
+     * @SQLRestriction 으로 붙는 deleted = false 도 인덱스 안에서 거르도록 count 용 인덱스에는 deleted 가 들어 있다. (Member)
+     */
+    private JPAQuery<Long> countQuery(MemberSearchCondition condition) {
+        JPAQuery<Long> query = queryFactory
+                .select(member.id.count())
+                .from(member);
+        if (condition.getTeamName() != null) {
+            query.join(member.team, team);
+        }
+
+        return query.where(
+                usernameEq(condition.getUsername()),
+                teamNameEq(condition.getTeamName()),
+                ageGoe(condition.getAgeGoe()),
+                ageLoe(condition.getAgeLoe())
+        );
+    }
+
+    private Map<String, Object> toMap(Tuple tuple, Set<MemberField> fields) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (MemberField field : fields) {
+            row.put(field.getProperty(), tuple.get(field.getExpression()));
+        }
+        return row;
     }
 
     private Predicate ageLoe(Integer ageLoe) {
@@ -0,0 +1,27 @@
+package study.querydsl.domain.member.repository;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * 검색 구현을 고른다. shard 가 켜져 있으면 scatter-gather, member.search.engine=sql 이면 querydsl-sql, 아니면 JPA.
+ */
+@Configuration
+public class MemberSearchConfig {
+
+    @Bean
+    @Primary
+    public MemberSearchRepository memberSearchRepository(MemberRepository memberRepository,
+                                                         ObjectProvider<ShardedMemberSearch> shardedMemberSearch,
+                                                         ObjectProvider<MemberSqlRepository> memberSqlRepository) {
+        MemberSearchRepository sharded = shardedMemberSearch.getIfAvailable();
+        if (sharded != null) {
+            return sharded;
+        }
+
+        MemberSearchRepository sql = memberSqlRepository.getIfAvailable();
+        return sql != null ? sql : memberRepository;
+    }
+}
@@ -0,0 +1,20 @@
+package study.querydsl.domain.member.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import study.querydsl.domain.member.dto.MemberFacetsDto;
+import study.querydsl.domain.member.dto.MemberSearchCondition;
+import study.querydsl.domain.member.dto.MemberTeamDto;
+
+import java.util.List;
+
+/**
+ * 검색 구현을 갈아 끼울 수 있게 검색 메서드만 따로 뺀 인터페이스.
+ * 기본은 MemberRepository(JPA), shard 가 켜져 있으면 ShardedMemberSearch 가 쓰인다. (MemberSearchConfig)
+ */
+public interface MemberSearchRepository {
+    List<MemberTeamDto> search(MemberSearchCondition condition);
+    Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable);
+    Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable);
+    MemberFacetsDto searchFacets(MemberSearchCondition condition, Pageable pageable);
+}
@@ -0,0 +1,107 @@
+package study.querydsl.domain.member.repository;
+
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.ComparableExpressionBase;
+import org.springframework.data.domain.Sort;
+import study.querydsl.domain.member.dto.MemberTeamDto;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static study.querydsl.domain.member.entity.QMember.member;
+
+/**
+ * Pageable 의 Sort 를 QueryDSL OrderSpecifier 로 바꾼다.
+ * 인덱스가 있는 컬럼만 허용하고(filesort 방지), 항상 member_id 를 마지막 정렬 기준으로 붙여서 순서가 유일하게 정해지게 한다.
+ * 붙이는 member_id 는 마지막 정렬 키와 같은 방향이다. (age DESC 면 member_id DESC)
+ * 보조 인덱스는 PK 를 끝에 달고 있으므로 방향이 같아야 인덱스를 거꾸로 읽는 것만으로 정렬이 끝난다.
+ */
+public final class MemberSortOrders {
+
+    static final Map<String, ComparableExpressionBase<?>> SORTABLE = Map.of(
+            "id", member.id,
+            "username", member.username,
+            "age", member.age
+    );
+
+    /**
+     * 여러 shard 결과를 합칠 때 DB 정렬과 같은 순서를 만든다. (ASC 는 NULL 먼저, DESC 는 NULL 나중)
+     */
+    private static final Map<String, Function<MemberTeamDto, Comparable<?>>> SORT_KEYS = Map.of(
+            "id", MemberTeamDto::getMemberId,
+            "username", MemberTeamDto::getUsername,
+            "age", MemberTeamDto::getAge
+    );
+
+    private MemberSortOrders() {
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Comparator<MemberTeamDto> comparator(Sort sort) {
+        Comparator<MemberTeamDto> comparator = null;
+        boolean hasId = false;
+        boolean ascending = true;
+
+        for (Sort.Order order : sort) {
+            Function<MemberTeamDto, Comparable<?>> key = SORT_KEYS.get(order.getProperty());
+            if (key == null) {
+                throw new UnsupportedSortException(order.getProperty(), SORT_KEYS.keySet());
+            }
+
+            Comparator<MemberTeamDto> next = Comparator.comparing((Function) key, Comparator.nullsFirst(Comparator.naturalOrder()));
+            if (order.isDescending()) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+            ascending = order.isAscending();
+            if (order.getProperty().equals("id")) {
+                hasId = true;
+                break;
+            }
+        }
+
+        if (!hasId) {
+            Comparator<MemberTeamDto> byId = Comparator.comparing(MemberTeamDto::getMemberId, Comparator.nullsFirst(Comparator.naturalOrder()));
+            if (!ascending) {
+                byId = byId.reversed();
+            }
+            comparator = comparator == null ? byId : comparator.thenComparing(byId);
+        }
+        return comparator;
+    }
+
+    public static OrderSpecifier<?>[] of(Sort sort) {
+        return of(sort, SORTABLE, member.id);
+    }
+
+    /**
+     * 같은 규칙을 다른 메타모델(querydsl-sql 의 S 타입 등)에 적용한다.
+     */
+    static OrderSpecifier<?>[] of(Sort sort, Map<String, ? extends ComparableExpressionBase<?>> sortable, ComparableExpressionBase<?> id) {
+        List<OrderSpecifier<?>> orders = new ArrayList<>();
+        boolean hasId = false;
+        boolean ascending = true;
+
+        for (Sort.Order order : sort) {
+            ComparableExpressionBase<?> path = sortable.get(order.getProperty());
+            if (path == null) {
+                throw new UnsupportedSortException(order.getProperty(), sortable.keySet());
+            }
+
+            orders.add(order.isAscending() ? path.asc() : path.desc());
+            ascending = order.isAscending();
+            if (path == id) {
+                hasId = true;
+                break;
+            }
+        }
+
+        if (!hasId) {
+            orders.add(ascending ? id.asc() : id.desc());
+        }
+        return orders.toArray(OrderSpecifier[]::new);
+    }
+}
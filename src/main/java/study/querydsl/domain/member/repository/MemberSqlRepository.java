@@ -0,0 +1,180 @@
+package study.querydsl.domain.member.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.MappingProjection;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.ComparableExpressionBase;
+import com.querydsl.core.types.dsl.NumberExpression;
+import com.querydsl.sql.SQLQuery;
+import com.querydsl.sql.SQLQueryFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.domain.member.dto.MemberFacetsDto;
+import study.querydsl.domain.member.dto.MemberSearchCondition;
+import study.querydsl.domain.member.dto.MemberTeamDto;
+import study.querydsl.global.cache.CacheConfig;
+import study.querydsl.global.deadline.DeadlineProperties;
+import study.querydsl.sql.SMember;
+import study.querydsl.sql.STeam;
+
+import java.util.List;
+import java.util.Map;
+
+import static study.querydsl.global.deadline.DeadlineQueries.pageOf;
+import static study.querydsl.global.deadline.DeadlineQueries.withShare;
+
+/**
+ * 검색을 JPQL 대신 querydsl-sql 로 바로 SQL 을 만들어 돌린다.
+ * 엔티티/영속성 컨텍스트/JPQL 파싱을 거치지 않고 ResultSet 을 DTO 로 바로 매핑한다.
+ * 조건과 정렬 규칙은 MemberRepositoryImpl 과 같다. (member.search.engine=sql 로 켠다)
+ */
+@Repository
+@ConditionalOnProperty(name = "member.search.engine", havingValue = "sql")
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class MemberSqlRepository implements MemberSearchRepository {
+
+    private static final SMember m = SMember.member;
+    private static final STeam t = STeam.team;
+
+    private static final Map<String, ComparableExpressionBase<?>> SORTABLE = Map.of(
+            "id", m.memberId,
+            "username", m.username,
+            "age", m.age
+    );
+
+    private static final MemberTeamRow MEMBER_TEAM_ROW = new MemberTeamRow();
+    private static final NumberExpression<Integer> AGE_BUCKET = MemberFacets.ageBucket(m.age);
+
+    private final SQLQueryFactory sqlQueryFactory;
+    private final DeadlineProperties deadlineProperties;
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.MEMBER_SEARCH, keyGenerator = "memberSearchKeyGenerator")
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        return contentQuery(condition).fetch();
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.MEMBER_SEARCH, keyGenerator = "memberSearchKeyGenerator")
+    public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
+        List<MemberTeamDto> content = contentQuery(condition)
+                .orderBy(MemberSortOrders.of(pageable.getSort(), SORTABLE, m.memberId))
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        return new PageImpl<>(content, pageable, content.size());
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.MEMBER_SEARCH, keyGenerator = "memberSearchKeyGenerator", unless = CacheConfig.UNLESS_UNCOUNTED)
+    public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
+        List<MemberTeamDto> content = withShare(contentQuery(condition)
+                .orderBy(MemberSortOrders.of(pageable.getSort(), SORTABLE, m.memberId))
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize()), deadlineProperties.getContentShare())
+                .fetch();
+
+        SQLQuery<Long> countQuery = countQuery(condition);
+
+        return pageOf(content, pageable, countQuery);
+    }
+
+    /**
+     * MemberRepositoryImpl#searchFacets 와 같이 (team.name, 나이대) group by 한 번으로 facet 과 total 을 만든다.
+     */
+    @Override
+    @Cacheable(cacheNames = CacheConfig.MEMBER_SEARCH, keyGenerator = "memberSearchKeyGenerator")
+    public MemberFacetsDto searchFacets(MemberSearchCondition condition, Pageable pageable) {
+        NumberExpression<Long> memberCount = m.memberId.count();
+        List<Tuple> groups = withShare(sqlQueryFactory
+                .select(t.name, AGE_BUCKET, memberCount)
+                .from(m)
+                .leftJoin(t).on(t.teamId.eq(m.teamId))
+                .where(notDeleted(), usernameEq(condition.getUsername()), teamNameEq(condition.getTeamName()), ageGoe(condition.getAgeGoe()), ageLoe(condition.getAgeLoe()))
+                .groupBy(t.name, AGE_BUCKET), deadlineProperties.getContentShare())
+                .fetch();
+
+        MemberFacets facets = new MemberFacets();
+        groups.forEach(group -> facets.add(group.get(t.name), group.get(AGE_BUCKET), group.get(memberCount)));
+
+        List<MemberTeamDto> content = List.of();
+        if (pageable.getOffset() < facets.total()) {
+            content = contentQuery(condition)
+                    .orderBy(MemberSortOrders.of(pageable.getSort(), SORTABLE, m.memberId))
+                    .offset(pageable.getOffset())
+                    .limit(pageable.getPageSize())
+                    .fetch();
+        }
+
+        return facets.toDto(content, pageable);
+    }
+
+    private SQLQuery<MemberTeamDto> contentQuery(MemberSearchCondition condition) {
+        return withShare(sqlQueryFactory
+                .select(MEMBER_TEAM_ROW)
+                .from(m)
+                .leftJoin(t).on(t.teamId.eq(m.teamId))
+                .where(notDeleted(), usernameEq(condition.getUsername()), teamNameEq(condition.getTeamName()), ageGoe(condition.getAgeGoe()), ageLoe(condition.getAgeLoe())), 1.0);
+    }
+
+    /**
+     * MemberRepositoryImpl#countQuery 와 같이 teamName 조건이 있을 때만 team 을 조인한다.
+     */
+    private SQLQuery<Long> countQuery(MemberSearchCondition condition) {
+        SQLQuery<Long> query = sqlQueryFactory
+                .select(m.memberId.count())
+                .from(m);
+        if (condition.getTeamName() != null) {
+            query.join(t).on(t.teamId.eq(m.teamId));
+        }
+
+        return query.where(notDeleted(), usernameEq(condition.getUsername()), teamNameEq(condition.getTeamName()), ageGoe(condition.getAgeGoe()), ageLoe(condition.getAgeLoe()));
+    }
+
+    /**
+     * JPA 쪽은 @SQLRestriction 이 붙여 주지만 SQL 로 바로 갈 때는 tombstone 을 직접 거른다.
+     */
+    private BooleanExpression notDeleted() {
+        return m.deleted.isFalse();
+    }
+
+    private BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe == null ? null : m.age.loe(ageLoe);
+    }
+
+    private BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe == null ? null : m.age.goe(ageGoe);
+    }
+
+    private BooleanExpression teamNameEq(String teamName) {
+        return teamName == null ? null : t.name.eq(teamName);
+    }
+
+    private BooleanExpression usernameEq(String username) {
+        return username == null ? null : m.username.eq(username);
+    }
+
+    /**
+     * 생성자 리플렉션(Projections.constructor) 없이 row 를 DTO 로 바로 만든다.
+     */
+    private static final class MemberTeamRow extends MappingProjection<MemberTeamDto> {
+
+        private MemberTeamRow() {
+            super(MemberTeamDto.class, m.memberId, m.username, m.age, t.teamId, t.name);
+        }
+
+        @Override
+        protected MemberTeamDto map(Tuple row) {
+            Integer age = row.get(m.age);
+            return new MemberTeamDto(row.get(m.memberId), row.get(m.username), age == null ? 0 : age, row.get(t.teamId), row.get(t.name));
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package study.querydsl.domain.member.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.domain.member.dto.MemberFacetsDto;
+import study.querydsl.domain.member.dto.MemberSearchCondition;
+import study.querydsl.domain.member.dto.MemberTeamDto;
+import study.querydsl.global.deadline.Deadline;
+import study.querydsl.global.deadline.DeadlineContext;
+import study.querydsl.global.deadline.DeadlineQueries;
+import study.querydsl.global.deadline.UncountedPage;
+import study.querydsl.global.shard.ShardContext;
+import study.querydsl.global.shard.ShardRouter;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+import static study.querydsl.domain.team.entity.QTeam.team;
+
+/**
+ * team_id 로 나뉜 member shard 를 대상으로 하는 검색.
+ * - teamName 이 팀 하나로 정해지면 그 팀의 shard 한 곳에서만 검색한다.
+ * - 아니면 모든 shard 에 병렬로 보내고(scatter), 각 shard 의 앞쪽 offset + size 건을 정렬 병합한 뒤 count 는 더한다(gather).
+ * - facet 도 같은 방식으로, shard 마다 센 member 수를 값별로 더한다.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shard.enabled", havingValue = "true")
+public class ShardedMemberSearch implements MemberSearchRepository {
+
+    private final MemberRepository memberRepository;
+    private final JPAQueryFactory queryFactory;
+    private final ShardRouter shardRouter;
+    private final ExecutorService shardExecutor;
+    private final PlatformTransactionManager transactionManager;
+
+    @Override
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        return join(submit(targetShards(condition), () -> memberRepository.search(condition))).stream()
+                .flatMap(List::stream)
+                .toList();
+    }
+
+    @Override
+    public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
+        List<MemberTeamDto> content = merge(join(submitContent(targetShards(condition), condition, pageable)), pageable);
+        return new PageImpl<>(content, pageable, content.size());
+    }
+
+    @Override
+    public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
+        List<Integer> shards = targetShards(condition);
+        if (shards.size() == 1) {
+            return onShard(shards.get(0), () -> memberRepository.searchPageComplex(condition, pageable));
+        }
+
+        // content 와 count 를 모든 shard 에 한꺼번에 보낸다. 1초도 안 남았으면 count 는 보내지 않는다. (DeadlineQueries#pageOf)
+        List<CompletableFuture<List<MemberTeamDto>>> contents = submitContent(shards, condition, pageable);
+        if (!DeadlineQueries.canCount()) {
+            return new UncountedPage<>(merge(join(contents), pageable), pageable);
+        }
+        List<CompletableFuture<Long>> counts = submit(shards, () -> memberRepository.searchCount(condition));
+
+        List<MemberTeamDto> content = merge(join(contents), pageable);
+        long total = join(counts).stream().mapToLong(Long::longValue).sum();
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    @Override
+    public MemberFacetsDto searchFacets(MemberSearchCondition condition, Pageable pageable) {
+        List<Integer> shards = targetShards(condition);
+        if (shards.size() == 1) {
+            return onShard(shards.get(0), () -> memberRepository.searchFacets(condition, pageable));
+        }
+
+        List<MemberFacetsDto> parts = join(submit(shards, () -> memberRepository.searchFacets(condition, head(pageable))));
+        List<MemberTeamDto> content = merge(parts.stream().map(part -> part.getPage().getContent()).toList(), pageable);
+        return MemberFacets.merge(parts).toDto(content, pageable);
+    }
+
+    /**
+     * 각 shard 에서 첫 페이지부터 필요한 만큼(offset + size)만 가져온다. 합친 뒤 같은 기준으로 정렬하면 전체 순서와 같다.
+     */
+    private List<CompletableFuture<List<MemberTeamDto>>> submitContent(List<Integer> shards, MemberSearchCondition condition, Pageable pageable) {
+        Pageable head = head(pageable);
+        return submit(shards, () -> memberRepository.searchPageSimple(condition, head).getContent());
+    }
+
+    private static Pageable head(Pageable pageable) {
+        return PageRequest.of(0, (int) (pageable.getOffset() + pageable.getPageSize()), pageable.getSort());
+    }
+
+    private List<MemberTeamDto> merge(List<List<MemberTeamDto>> shardContents, Pageable pageable) {
+        Comparator<MemberTeamDto> order = MemberSortOrders.comparator(pageable.getSort());
+        return shardContents.stream()
+                .flatMap(List::stream)
+                .sorted(order)
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .toList();
+    }
+
+    private List<Integer> targetShards(MemberSearchCondition condition) {
+        if (condition.getTeamName() == null) {
+            return shardRouter.allShards();
+        }
+
+        // team 은 모든 shard 에 복제되어 있으므로 0번에서 찾는다.
+        List<Long> teamIds = onShard(0, () -> queryFactory
+                .select(team.id)
+                .from(team)
+                .where(team.name.eq(condition.getTeamName()))
+                .fetch());
+        if (teamIds.isEmpty()) {
+            return List.of(0);
+        }
+
+        return teamIds.stream()
+                .map(shardRouter::shardOf)
+                .distinct()
+                .sorted()
+                .toList();
+    }
+
+    private <T> List<CompletableFuture<T>> submit(List<Integer> shards, Supplier<T> query) {
+        Deadline deadline = DeadlineContext.current();
+        return shards.stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> inShard(shard, deadline, query), shardExecutor))
+                .toList();
+    }
+
+    private <T> List<T> join(List<CompletableFuture<T>> futures) {
+        return futures.stream().map(this::await).toList();
+    }
+
+    /**
+     * shard 에서 난 예외를 CompletionException 으로 감싸지 않고 그대로 던져서 예외 처리(504 등)가 원래 타입을 보게 한다.
+     */
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private <T> T onShard(int shard, Supplier<T> query) {
+        Deadline deadline = DeadlineContext.current();
+        return await(CompletableFuture.supplyAsync(() -> inShard(shard, deadline, query), shardExecutor));
+    }
+
+    private <T> T inShard(int shard, Deadline deadline, Supplier<T> query) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return DeadlineContext.callWithin(deadline, () -> ShardContext.callOn(shard, () -> readOnly.execute(status -> query.get())));
+    }
+}
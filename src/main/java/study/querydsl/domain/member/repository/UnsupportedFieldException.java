@@ -0,0 +1,11 @@
+package study.querydsl.domain.member.repository;
+
+import java.util.Arrays;
+
+public class UnsupportedFieldException extends IllegalArgumentException {
+
+    public UnsupportedFieldException(String field) {
+        super("field '" + field + "' is not supported, allowed: "
+                + Arrays.stream(MemberField.values()).map(MemberField::getProperty).toList());
+    }
+}
@@ -0,0 +1,11 @@
+package study.querydsl.domain.member.repository;
+
+import java.util.Collection;
+import java.util.TreeSet;
+
+public class UnsupportedSortException extends IllegalArgumentException {
+
+    public UnsupportedSortException(String property, Collection<String> allowed) {
+        super("sort by '" + property + "' is not supported, allowed: " + new TreeSet<>(allowed));
+    }
+}
@@ -0,0 +1,56 @@
+package study.querydsl.domain.team.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import study.querydsl.domain.team.dto.TeamMemberRankDto;
+import study.querydsl.domain.team.dto.TeamStatsDto;
+import study.querydsl.domain.team.repository.TeamMemberRankRepository;
+import study.querydsl.domain.team.service.TeamStatsService;
+import study.querydsl.global.shard.ShardOperations;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+@RestController
+public class TeamController {
+
+    private static final int MAX_TOP_MEMBERS = 100;
+
+    private final TeamStatsService teamStatsService;
+    private final TeamMemberRankRepository teamMemberRankRepository;
+    private final ShardOperations shardOperations;
+
+    @GetMapping("/v1/teams/stats")
+    public List<TeamStatsDto> teamStats(){
+        return teamStatsService.findAll();
+    }
+
+    @GetMapping("/v1/teams/{teamId}/stats")
+    public TeamStatsDto teamStats(@PathVariable Long teamId){
+        return teamStatsService.find(teamId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * 팀마다 나이가 많은 순으로 n 명. 윈도우 함수 한 번의 스캔으로 구한다.
+     */
+    @GetMapping("/v1/teams/top-members")
+    public List<TeamMemberRankDto> topMembers(@RequestParam(defaultValue = "3") int n){
+        if (n < 1 || n > MAX_TOP_MEMBERS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "n must be between 1 and " + MAX_TOP_MEMBERS);
+        }
+        shardOperations.rejectIfSharded("team top members");
+        return teamMemberRankRepository.topOldestPerTeam(n);
+    }
+
+    @GetMapping("/v1/teams/ranks")
+    public List<TeamMemberRankDto> ranks(@RequestParam String teamName){
+        shardOperations.rejectIfSharded("team ranks");
+        return teamMemberRankRepository.rankInTeam(teamName);
+    }
+}
@@ -0,0 +1,32 @@
+package study.querydsl.domain.team.dto;
+
+import com.querydsl.core.annotations.QueryProjection;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 팀 안에서 나이 순위. rank 는 1 부터, teamAverageAge 는 같은 팀 전체 평균이다.
+ */
+@Data
+@NoArgsConstructor
+public class TeamMemberRankDto {
+
+    private Long memberId;
+    private String username;
+    private int age;
+    private Long teamId;
+    private String teamName;
+    private long rank;
+    private Double teamAverageAge;
+
+    @QueryProjection
+    public TeamMemberRankDto(Long memberId, String username, int age, Long teamId, String teamName, Long rank, Double teamAverageAge) {
+        this.memberId = memberId;
+        this.username = username;
+        this.age = age;
+        this.teamId = teamId;
+        this.teamName = teamName;
+        this.rank = rank == null ? 0 : rank;
+        this.teamAverageAge = teamAverageAge;
+    }
+}
@@ -6,15 +6,22 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
 import study.querydsl.domain.member.entity.Member;
+import study.querydsl.global.audit.BaseTimeEntity;
+import study.querydsl.global.cache.SearchCacheInvalidationListener;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@EntityListeners(SearchCacheInvalidationListener.class)
+@Table(indexes = {
+        @Index(name = "idx_team_name", columnList = "name"),
+        @Index(name = "idx_team_updated_at", columnList = "updated_at, team_id")
+})
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "name"})
-public class Team {
+public class Team extends BaseTimeEntity {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
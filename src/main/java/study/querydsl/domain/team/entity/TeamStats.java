@@ -0,0 +1,28 @@
+package study.querydsl.domain.team.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * 팀별 집계 (member 수, 나이 합, 최소/최대 나이).
+ * member 변경 이벤트로 갱신하는 사이드 테이블이라 team 과 FK 를 두지 않는다. 값은 TeamStatsService 만 쓴다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class TeamStats {
+
+    @Id
+    @Column(name = "team_id")
+    private Long teamId;
+    private long memberCount;
+    private long ageSum;
+    private Integer minAge;
+    private Integer maxAge;
+}
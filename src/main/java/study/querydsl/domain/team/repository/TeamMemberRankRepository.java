@@ -0,0 +1,141 @@
+package study.querydsl.domain.team.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.MappingProjection;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberExpression;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.core.types.dsl.StringPath;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.sql.SQLExpressions;
+import com.querydsl.sql.SQLQuery;
+import com.querydsl.sql.SQLQueryFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.domain.member.entity.QMember;
+import study.querydsl.domain.team.dto.QTeamMemberRankDto;
+import study.querydsl.domain.team.dto.TeamMemberRankDto;
+import study.querydsl.global.jpa.WindowFunctionContributor;
+import study.querydsl.sql.SMember;
+import study.querydsl.sql.STeam;
+
+import java.util.List;
+
+import static study.querydsl.domain.member.entity.QMember.member;
+import static study.querydsl.domain.team.entity.QTeam.team;
+import static study.querydsl.global.deadline.DeadlineQueries.withShare;
+
+/**
+ * 팀별 나이 순위 조회.
+ * - topOldestPerTeam : 윈도우 함수(ROW_NUMBER) 한 번의 스캔으로 순위를 매기고 파생 테이블에서 N 개만 거른다.
+ *   JPQL(QueryDSL JPA)은 from 절 서브쿼리를 못 만들어서 querydsl-sql 로 짠다.
+ * - topOldestPerTeamSubquery : 같은 결과를 상관 서브쿼리로 구한다. 바깥 row 마다 member 를 다시 훑는다. (비교용)
+ * - rankInTeam : 등록한 HQL 윈도우 함수(WindowFunctionContributor)를 select 절에서 쓴다.
+ * 순위가 같은 나이는 member_id 가 작은 쪽이 앞선다.
+ */
+@Repository
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class TeamMemberRankRepository {
+
+    private static final SMember m = SMember.member;
+    private static final STeam t = STeam.team;
+
+    private static final PathBuilder<Object> ranked = new PathBuilder<>(Object.class, "ranked");
+    private static final NumberPath<Long> RANKED_MEMBER_ID = ranked.getNumber("member_id", Long.class);
+    private static final StringPath RANKED_USERNAME = ranked.getString("username");
+    private static final NumberPath<Integer> RANKED_AGE = ranked.getNumber("age", Integer.class);
+    private static final NumberPath<Long> RANKED_TEAM_ID = ranked.getNumber("team_id", Long.class);
+    private static final StringPath RANKED_TEAM_NAME = ranked.getString("team_name");
+    private static final NumberPath<Long> RANKED_RN = ranked.getNumber("rn", Long.class);
+    private static final NumberPath<Double> RANKED_TEAM_AVG_AGE = ranked.getNumber("team_avg_age", Double.class);
+
+    private static final RankedRow RANKED_ROW = new RankedRow();
+
+    private final JPAQueryFactory queryFactory;
+    private final SQLQueryFactory sqlQueryFactory;
+
+    public List<TeamMemberRankDto> topOldestPerTeam(int limit) {
+        SQLQuery<?> rankedMembers = SQLExpressions
+                .select(m.memberId.as("member_id"),
+                        m.username.as("username"),
+                        m.age.as("age"),
+                        t.teamId.as("team_id"),
+                        t.name.as("team_name"),
+                        SQLExpressions.rowNumber().over()
+                                .partitionBy(m.teamId)
+                                .orderBy(m.age.desc(), m.memberId.asc())
+                                .as("rn"),
+                        Expressions.numberTemplate(Double.class, "avg({0} * 1.0) over (partition by {1})", m.age, m.teamId)
+                                .as("team_avg_age"))
+                .from(m)
+                .join(t).on(t.teamId.eq(m.teamId))
+                // querydsl-sql 에는 @SQLRestriction 이 붙지 않으므로 tombstone 을 직접 거른다.
+                .where(m.deleted.isFalse());
+
+        return withShare(sqlQueryFactory
+                .select(RANKED_ROW)
+                .from(rankedMembers, ranked)
+                .where(RANKED_RN.loe((long) limit))
+                .orderBy(RANKED_TEAM_ID.asc(), RANKED_RN.asc()), 1.0)
+                .fetch();
+    }
+
+    public List<TeamMemberRankDto> topOldestPerTeamSubquery(int limit) {
+        QMember other = new QMember("other");
+        NumberExpression<Long> ahead = Expressions.asNumber(JPAExpressions
+                .select(other.count())
+                .from(other)
+                .where(other.team.id.eq(team.id),
+                        other.age.gt(member.age).or(other.age.eq(member.age).and(other.id.lt(member.id)))));
+
+        return queryFactory
+                .select(new QTeamMemberRankDto(member.id, member.username, member.age, team.id, team.name,
+                        ahead.add(1L),
+                        Expressions.asNumber(JPAExpressions
+                                .select(other.age.avg())
+                                .from(other)
+                                .where(other.team.id.eq(team.id)))))
+                .from(member)
+                .join(member.team, team)
+                .where(ahead.lt((long) limit))
+                .orderBy(team.id.asc(), member.age.desc(), member.id.asc())
+                .fetch();
+    }
+
+    /**
+     * 한 팀의 멤버 전체를 팀 안 나이 순위(RANK, 동점은 같은 순위)와 팀 평균과 함께 돌려준다.
+     */
+    public List<TeamMemberRankDto> rankInTeam(String teamName) {
+        NumberExpression<Long> rank = Expressions.numberTemplate(Long.class,
+                WindowFunctionContributor.RANK_OVER_DESC + "({0}, {1})", team.id, member.age);
+        NumberExpression<Double> teamAverageAge = Expressions.numberTemplate(Double.class,
+                WindowFunctionContributor.AVG_OVER + "({0}, {1})", member.age, team.id);
+
+        return queryFactory
+                .select(new QTeamMemberRankDto(member.id, member.username, member.age, team.id, team.name, rank, teamAverageAge))
+                .from(member)
+                .join(member.team, team)
+                .where(team.name.eq(teamName))
+                .orderBy(member.age.desc(), member.id.asc())
+                .fetch();
+    }
+
+    private static final class RankedRow extends MappingProjection<TeamMemberRankDto> {
+
+        private RankedRow() {
+            super(TeamMemberRankDto.class, RANKED_MEMBER_ID, RANKED_USERNAME, RANKED_AGE, RANKED_TEAM_ID, RANKED_TEAM_NAME,
+                    RANKED_RN, RANKED_TEAM_AVG_AGE);
+        }
+
+        @Override
+        protected TeamMemberRankDto map(Tuple row) {
+            Integer age = row.get(RANKED_AGE);
+            return new TeamMemberRankDto(row.get(RANKED_MEMBER_ID), row.get(RANKED_USERNAME), age == null ? 0 : age,
+                    row.get(RANKED_TEAM_ID), row.get(RANKED_TEAM_NAME), row.get(RANKED_RN), row.get(RANKED_TEAM_AVG_AGE));
+        }
+    }
+}
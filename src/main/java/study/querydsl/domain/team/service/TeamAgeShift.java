@@ -0,0 +1,25 @@
+package study.querydsl.domain.team.service;
+
+import lombok.Getter;
+
+/**
+ * 한 팀에서 멤버 여럿의 나이가 한꺼번에 바뀐 양. 멤버 수는 그대로다. (MemberAgeAccumulator)
+ * 바뀐 멤버들의 바뀌기 전/후 최소, 최대 나이를 같이 모아서 팀의 min/max 를 다시 집계해야 하는지 판단한다.
+ */
+@Getter
+public class TeamAgeShift {
+
+    private long ageSumDelta;
+    private int minBefore = Integer.MAX_VALUE;
+    private int maxBefore = Integer.MIN_VALUE;
+    private int minAfter = Integer.MAX_VALUE;
+    private int maxAfter = Integer.MIN_VALUE;
+
+    public void add(int before, int after) {
+        ageSumDelta += after - before;
+        minBefore = Math.min(minBefore, before);
+        maxBefore = Math.max(maxBefore, before);
+        minAfter = Math.min(minAfter, after);
+        maxAfter = Math.max(maxAfter, after);
+    }
+}
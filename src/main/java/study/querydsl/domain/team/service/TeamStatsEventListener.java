@@ -0,0 +1,126 @@
+package study.querydsl.domain.team.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PreInsertEvent;
+import org.hibernate.event.spi.PreInsertEventListener;
+import org.hibernate.event.spi.PreUpdateEvent;
+import org.hibernate.event.spi.PreUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import study.querydsl.domain.member.entity.Member;
+import study.querydsl.domain.team.entity.Team;
+
+import java.util.Arrays;
+
+/**
+ * Member insert / update(팀 변경, 나이 변경, soft delete)를 커밋 후에 TeamStatsService 로 넘긴다.
+ * member 는 row 를 지우지 않고 Member#delete() 로 tombstone 만 남기므로(MemberRepository 의 delete 들도 마찬가지) delete 이벤트는 받지 않는다.
+ * JPA 엔티티 리스너와 달리 Hibernate post-commit 이벤트는 이전 상태(oldState)를 주고, 롤백된 변경은 오지 않는다.
+ * 커밋 전에 오는 pre 이벤트에서는 그 트랜잭션을 TeamStatsService 에 알려 둔다. (trackCommit)
+ */
+@Component
+@RequiredArgsConstructor
+public class TeamStatsEventListener implements PreInsertEventListener, PreUpdateEventListener,
+        PostCommitInsertEventListener, PostCommitUpdateEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final TeamStatsService teamStatsService;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.PRE_INSERT, this);
+        registry.appendListeners(EventType.PRE_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return persister.getMappedClass() == Member.class;
+    }
+
+    @Override
+    public boolean onPreInsert(PreInsertEvent event) {
+        if (event.getEntity() instanceof Member) {
+            teamStatsService.trackCommit();
+        }
+        return false;
+    }
+
+    @Override
+    public boolean onPreUpdate(PreUpdateEvent event) {
+        if (event.getEntity() instanceof Member) {
+            teamStatsService.trackCommit();
+        }
+        return false;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (!(event.getEntity() instanceof Member)) {
+            return;
+        }
+
+        Long teamId = teamId(event.getPersister(), event.getState());
+        if (teamId != null) {
+            teamStatsService.memberJoined(teamId, age(event.getPersister(), event.getState()));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Member)) {
+            return;
+        }
+
+        if (event.getOldState() == null) {
+            teamStatsService.reconcileAfterCommit();
+            return;
+        }
+
+        // soft delete(Member#delete)도 update 로 온다. tombstone 은 팀에 없는 것으로 본다.
+        EntityPersister persister = event.getPersister();
+        Object[] oldState = event.getOldState();
+        Object[] state = event.getState();
+        teamStatsService.memberChanged(
+                deleted(persister, oldState) ? null : teamId(persister, oldState), age(persister, oldState),
+                deleted(persister, state) ? null : teamId(persister, state), age(persister, state));
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    private Long teamId(EntityPersister persister, Object[] state) {
+        Object team = state[indexOf(persister, "team")];
+        return team == null ? null : ((Team) team).getId();
+    }
+
+    private boolean deleted(EntityPersister persister, Object[] state) {
+        return (Boolean) state[indexOf(persister, "deleted")];
+    }
+
+    private int age(EntityPersister persister, Object[] state) {
+        return (Integer) state[indexOf(persister, "age")];
+    }
+
+    private int indexOf(EntityPersister persister, String property) {
+        return Arrays.asList(persister.getPropertyNames()).indexOf(property);
+    }
+}
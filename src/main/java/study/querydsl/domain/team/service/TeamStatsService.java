@@ -0,0 +1,389 @@
+package study.querydsl.domain.team.service;
+
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberExpression;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.domain.team.dto.QTeamStatsDto;
+import study.querydsl.domain.team.dto.TeamStatsDto;
+import study.querydsl.global.shard.ShardOperations;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static study.querydsl.domain.member.entity.QMember.member;
+
+/**
+ * 팀별 집계를 매번 GROUP BY 하지 않고, 커밋된 member 변경분만큼 누적해서 유지한다.
+ * - 메모리(aggregates)와 team_stats 테이블에 같은 값을 둔다. 조회는 메모리에서 O(팀 수)로 끝난다.
+ * - 갱신은 단일 스레드(applier)에서 순서대로 처리하므로 락이 필요 없다.
+ * - 최소/최대 나이인 멤버가 빠지면 누적으로는 알 수 없으므로 그 팀만 다시 집계한다.
+ * - 벌크 update 나 이벤트 유실로 생긴 차이는 주기적인 reconcile 이 전체 GROUP BY 로 바로잡는다.
+ * - team_stats 는 여러 인스턴스가 함께 쓰므로 누적분은 member_count = member_count + ? 처럼 델타로 쓰고, 메모리는 쓴 뒤의 row 로 맞춘다.
+ *
+ * 변경분은 커밋된 뒤 번호(sequence)를 받는다. 다시 집계할 때는 쿼리 전에 그때까지 매긴 번호를 기록해 두고,
+ * 그 번호 이하의 변경분은 이미 집계에 들어 있으므로 나중에 도착해도 버린다. (두 번 세지 않는다)
+ * 트랜잭션이 도는 동안 집계가 시작됐다면(snapshotEpoch 가 바뀌었다면) 그 커밋이 집계에 들어갔는지 알 수 없으므로
+ * 그 변경분은 더하지 않고 해당 팀을 다시 집계한다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TeamStatsService {
+
+    private static final NumberExpression<Long> AGE_SUM = Expressions.numberTemplate(Long.class, "sum({0})", member.age);
+
+    private final JPAQueryFactory queryFactory;
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardOperations shardOperations;
+    private final Map<Long, TeamStatsDto> aggregates = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    // 집계 쿼리를 시작할 때와 끝낼 때 1씩 올린다. 홀수면 집계 중이다.
+    private final AtomicLong snapshotEpoch = new AtomicLong();
+    // applier 스레드만 쓴다. 이 번호 이하의 변경분은 마지막 집계에 이미 들어 있다.
+    private volatile long reconciledThrough;
+    private final Map<Long, Long> recomputedThrough = new ConcurrentHashMap<>();
+    private final ExecutorService applier = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "team-stats-applier");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public List<TeamStatsDto> findAll() {
+        return aggregates.values().stream()
+                .sorted(Comparator.comparing(TeamStatsDto::getTeamId))
+                .toList();
+    }
+
+    public Optional<TeamStatsDto> find(Long teamId) {
+        return Optional.ofNullable(aggregates.get(teamId));
+    }
+
+    /**
+     * member 를 바꾸는 트랜잭션 안에서, 커밋 전에 부른다. 트랜잭션이 시작된 뒤 집계가 돌았는지 알 수 있게 지금의 epoch 를 기록한다.
+     * 트랜잭션마다 한 번만 건다.
+     */
+    public void trackCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive() && currentTracker() == null) {
+            TransactionSynchronizationManager.registerSynchronization(new CommitTracker(snapshotEpoch.get()));
+        }
+    }
+
+    /**
+     * 커밋된 변경분. trackCommit 을 건 트랜잭션이 커밋된 직후(끝나기 전)에 부른다.
+     */
+    public void memberJoined(Long teamId, int age) {
+        apply(teamId, () -> applyJoin(teamId, age));
+    }
+
+    public void memberLeft(Long teamId, int age) {
+        apply(teamId, () -> applyLeave(teamId, age));
+    }
+
+    public void memberChanged(Long oldTeamId, int oldAge, Long newTeamId, int newAge) {
+        if (Objects.equals(oldTeamId, newTeamId) && oldAge == newAge) {
+            return;
+        }
+        if (oldTeamId != null) {
+            memberLeft(oldTeamId, oldAge);
+        }
+        if (newTeamId != null) {
+            memberJoined(newTeamId, newAge);
+        }
+    }
+
+    /**
+     * 멤버 수는 그대로 두고 나이만 바뀐 만큼 반영한다. 전체 재집계 없이 age_sum 을 델타로 더한다.
+     */
+    public void agesShifted(Long teamId, TeamAgeShift shift) {
+        apply(teamId, () -> applyShift(teamId, shift));
+    }
+
+    /**
+     * 벌크 update/delete 처럼 이벤트 없이 바뀌는 경우. 트랜잭션이 커밋된 뒤 전체를 다시 집계한다.
+     */
+    public void reconcileAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(this::reconcile);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enqueue(TeamStatsService.this::reconcile);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        enqueue(this::reconcile);
+    }
+
+    @Scheduled(fixedDelayString = "${team-stats.reconcile-interval:PT10M}", initialDelayString = "${team-stats.reconcile-interval:PT10M}")
+    public void scheduledReconcile() {
+        enqueue(this::reconcile);
+    }
+
+    /**
+     * 대기 중인 갱신이 모두 반영될 때까지 기다린다. (테스트, 종료 시 사용)
+     */
+    public void awaitPending() {
+        try {
+            applier.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        applier.shutdown();
+    }
+
+    /**
+     * @return 메모리 값과 실제 집계가 달랐던 팀 수
+     */
+    int reconcile() {
+        long[] through = new long[1];
+        // member 는 team_id 로 나뉘어 있으므로 shard 별 집계를 이어 붙이면 전체 집계다.
+        List<TeamStatsDto> actual = snapshot(through, () -> shardOperations.readOnEachShard(() -> queryFactory
+                        .select(new QTeamStatsDto(member.team.id, member.count(), AGE_SUM, member.age.min(), member.age.max()))
+                        .from(member)
+                        .where(member.team.isNotNull())
+                        .groupBy(member.team.id)
+                        .fetch())
+                .stream()
+                .flatMap(List::stream)
+                .toList());
+        reconciledThrough = through[0];
+        recomputedThrough.clear();
+
+        Map<Long, TeamStatsDto> next = new HashMap<>();
+        actual.forEach(stats -> next.put(stats.getTeamId(), stats));
+
+        int drift = 0;
+        for (Long teamId : union(next, aggregates)) {
+            if (!Objects.equals(next.get(teamId), aggregates.get(teamId))) {
+                drift++;
+            }
+        }
+
+        // team_stats 도 팀의 shard 에 둔다.
+        shardOperations.runOnEachShard(() -> {
+            jdbcTemplate.update("delete from team_stats");
+            jdbcTemplate.batchUpdate(
+                    "insert into team_stats (team_id, member_count, age_sum, min_age, max_age) values (?, ?, ?, ?, ?)",
+                    actual.stream()
+                            .filter(s -> shardOperations.shardOf(s.getTeamId()) == shardOperations.currentShard())
+                            .map(s -> new Object[]{s.getTeamId(), s.getMemberCount(), s.getAgeSum(), s.getMinAge(), s.getMaxAge()})
+                            .toList());
+        });
+
+        aggregates.keySet().retainAll(next.keySet());
+        aggregates.putAll(next);
+
+        if (drift > 0) {
+            log.warn("team stats reconciled, {} teams drifted", drift);
+        }
+        return drift;
+    }
+
+    void enqueue(Runnable task) {
+        applier.execute(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.error("team stats update failed, next reconcile will fix it", e);
+            }
+        });
+    }
+
+    private void apply(Long teamId, Runnable delta) {
+        long seq = sequence.incrementAndGet();
+        CommitTracker tracker = currentTracker();
+        boolean ambiguous = tracker == null || !tracker.unchangedSince(snapshotEpoch.get());
+
+        enqueue(() -> {
+            if (seq <= Math.max(reconciledThrough, recomputedThrough.getOrDefault(teamId, 0L))) {
+                return;
+            }
+            if (ambiguous) {
+                recompute(teamId);
+                return;
+            }
+            delta.run();
+        });
+    }
+
+    private <T> T snapshot(long[] through, Supplier<T> query) {
+        snapshotEpoch.incrementAndGet();
+        try {
+            through[0] = sequence.get();
+            return query.get();
+        } finally {
+            snapshotEpoch.incrementAndGet();
+        }
+    }
+
+    private static CommitTracker currentTracker() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof CommitTracker tracker) {
+                return tracker;
+            }
+        }
+        return null;
+    }
+
+    private void applyJoin(Long teamId, int age) {
+        shardOperations.runOnTeamShard(teamId, () -> {
+            if (join(teamId, age) == 0) {
+                try {
+                    jdbcTemplate.update(
+                            "insert into team_stats (team_id, member_count, age_sum, min_age, max_age) values (?, 1, ?, ?, ?)",
+                            teamId, age, age, age);
+                } catch (DuplicateKeyException e) {
+                    // 다른 인스턴스가 먼저 만들었다.
+                    join(teamId, age);
+                }
+            }
+            reload(teamId);
+        });
+    }
+
+    private int join(Long teamId, int age) {
+        return jdbcTemplate.update(
+                "update team_stats set member_count = member_count + 1, age_sum = age_sum + ?,"
+                        + " min_age = least(min_age, ?), max_age = greatest(max_age, ?) where team_id = ?",
+                age, age, age, teamId);
+    }
+
+    private void applyLeave(Long teamId, int age) {
+        TeamStatsDto current = aggregates.get(teamId);
+        if (current == null || current.getMemberCount() <= 1 || age <= current.getMinAge() || age >= current.getMaxAge()) {
+            recompute(teamId);
+            return;
+        }
+
+        shardOperations.runOnTeamShard(teamId, () -> {
+            jdbcTemplate.update(
+                    "update team_stats set member_count = member_count - 1, age_sum = age_sum - ? where team_id = ?",
+                    age, teamId);
+            reload(teamId);
+        });
+    }
+
+    /**
+     * 바뀐 멤버 중에 최소/최대 나이였던 사람이 없으면 min/max 는 바뀐 뒤의 나이와만 비교하면 된다.
+     * 있으면 그 자리를 누가 이어받는지 누적으로는 알 수 없으므로 applyLeave 처럼 그 팀만 다시 집계한다.
+     */
+    private void applyShift(Long teamId, TeamAgeShift shift) {
+        TeamStatsDto current = aggregates.get(teamId);
+        if (current == null || shift.getMinBefore() <= current.getMinAge() || shift.getMaxBefore() >= current.getMaxAge()) {
+            recompute(teamId);
+            return;
+        }
+
+        shardOperations.runOnTeamShard(teamId, () -> {
+            jdbcTemplate.update(
+                    "update team_stats set age_sum = age_sum + ?, min_age = least(min_age, ?), max_age = greatest(max_age, ?) where team_id = ?",
+                    shift.getAgeSumDelta(), shift.getMinAfter(), shift.getMaxAfter(), teamId);
+            reload(teamId);
+        });
+    }
+
+    /**
+     * 한 팀만 다시 집계해서 그대로 쓴다. 이 팀의 변경분 중 집계 전에 커밋된 것은 이후 버린다.
+     */
+    private void recompute(Long teamId) {
+        long[] through = new long[1];
+        TeamStatsDto stats = snapshot(through, () -> shardOperations.callOnTeamShard(teamId, () -> queryFactory
+                .select(new QTeamStatsDto(member.team.id, member.count(), AGE_SUM, member.age.min(), member.age.max()))
+                .from(member)
+                .where(member.team.id.eq(teamId))
+                .groupBy(member.team.id)
+                .fetchOne()));
+        recomputedThrough.put(teamId, through[0]);
+
+        if (stats == null) {
+            aggregates.remove(teamId);
+            shardOperations.runOnTeamShard(teamId, () -> jdbcTemplate.update("delete from team_stats where team_id = ?", teamId));
+            return;
+        }
+
+        aggregates.put(teamId, stats);
+        shardOperations.runOnTeamShard(teamId, () -> {
+            int updated = jdbcTemplate.update(
+                    "update team_stats set member_count = ?, age_sum = ?, min_age = ?, max_age = ? where team_id = ?",
+                    stats.getMemberCount(), stats.getAgeSum(), stats.getMinAge(), stats.getMaxAge(), teamId);
+            if (updated == 0) {
+                jdbcTemplate.update(
+                        "insert into team_stats (team_id, member_count, age_sum, min_age, max_age) values (?, ?, ?, ?, ?)",
+                        teamId, stats.getMemberCount(), stats.getAgeSum(), stats.getMinAge(), stats.getMaxAge());
+            }
+        });
+    }
+
+    /**
+     * 다른 인스턴스가 더한 몫까지 들어 있는 team_stats 의 값으로 메모리를 맞춘다.
+     */
+    private void reload(Long teamId) {
+        jdbcTemplate.query(
+                "select member_count, age_sum, min_age, max_age from team_stats where team_id = ?",
+                rs -> {
+                    aggregates.put(teamId, new TeamStatsDto(teamId, rs.getLong(1), rs.getLong(2),
+                            rs.getObject(3, Integer.class), rs.getObject(4, Integer.class)));
+                },
+                teamId);
+    }
+
+    /**
+     * 트랜잭션이 member 를 처음 바꿀 때의 epoch. 커밋 직후에도 같고 짝수(집계 중 아님)면, 그 사이에 집계가 돌지 않았다.
+     */
+    private static final class CommitTracker implements TransactionSynchronization {
+
+        private final long epoch;
+
+        CommitTracker(long epoch) {
+            this.epoch = epoch;
+        }
+
+        boolean unchangedSince(long current) {
+            return epoch == current && epoch % 2 == 0;
+        }
+    }
+
+    private static Set<Long> union(Map<Long, ?> a, Map<Long, ?> b) {
+        Set<Long> keys = new HashSet<>(a.keySet());
+        keys.addAll(b.keySet());
+        return keys;
+    }
+}
@@ -0,0 +1,22 @@
+package study.querydsl.global.accumulator;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "age-accumulator")
+public class AgeAccumulatorProperties {
+
+    /** 모아 둔 증가분을 DB 에 내보내는 주기. 프로세스가 죽으면 최대 이만큼(+ flush 시간)의 증가분을 잃는다. */
+    private Duration flushInterval = Duration.ofSeconds(1);
+
+    /** stripe 수. 0 이면 CPU 수 * 4 에 가까운 2의 거듭제곱 */
+    private int stripes = 0;
+
+    /** update 한 번의 IN 절에 넣을 최대 member_id 수 */
+    private int maxIdsPerStatement = 500;
+}
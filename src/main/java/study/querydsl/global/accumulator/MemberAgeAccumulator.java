@@ -0,0 +1,321 @@
+package study.querydsl.global.accumulator;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.LockModeType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.domain.team.service.TeamAgeShift;
+import study.querydsl.domain.team.service.TeamStatsService;
+import study.querydsl.global.cache.MemberSearchCacheEvictor;
+import study.querydsl.global.shard.ShardOperations;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+import static study.querydsl.domain.member.entity.QMember.member;
+
+/**
+ * member.age 증가를 건마다 UPDATE 하지 않고 메모리에 모았다가 주기적으로 한꺼번에 반영한다.
+ * 같은 member 에 증가가 몰리면 건마다 UPDATE 는 그 row 의 락을 두고 줄을 서지만, 여기서는 flush 당 한 번만 잡는다.
+ *
+ * - member_id 해시로 stripe 를 고르고, stripe 안에서는 member 별 LongAdder 에 더한다. 더하기는 stripe 의 read 락(CAS)만 잡는다.
+ * - flush 는 stripe 마다 write 락으로 맵을 새것으로 바꿔치기하고, 떼어 낸 증가분을 델타 값별로 묶어서
+ *   update member set age = age + ? where member_id in (...) 로 내보낸다. (shard 마다 트랜잭션 하나)
+ * - shard 를 쓰면 member_id 로는 shard 를 모르므로 shard 마다 있는 member 만 골라서 그 shard 의 트랜잭션에서 반영한다.
+ * - 팀 집계에는 팀별 나이 합의 변화만 넘긴다. (전체 GROUP BY 재집계를 하지 않는다)
+ * - flush 가 실패하면 아직 커밋되지 않은 증가분만 다시 더해 두고 다음 주기에 재시도한다.
+ *
+ * 유실 구간: 증가분은 flush 가 커밋되기 전까지 메모리에만 있다. 프로세스가 죽으면 마지막 성공한 flush 이후의 증가분
+ * (최대 flush-interval + flush 시간)은 사라진다. 정상 종료 시에는 @PreDestroy 에서 한 번 더 flush 한다.
+ * 그 사이 DB 의 age 는 모아 둔 만큼 뒤처져 있으므로 정확한 값이 바로 필요한 곳에는 쓰지 않는다.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(AgeAccumulatorProperties.class)
+public class MemberAgeAccumulator {
+
+    private final JPAQueryFactory queryFactory;
+    private final ShardOperations shardOperations;
+    private final MemberSearchCacheEvictor memberSearchCacheEvictor;
+    private final TeamStatsService teamStatsService;
+    private final AgeAccumulatorProperties properties;
+
+    private final Stripe[] stripes;
+    private final int mask;
+
+    private final Timer flushTimer;
+    private final Counter flushedMembers;
+    private final Counter failedFlushes;
+
+    public MemberAgeAccumulator(JPAQueryFactory queryFactory,
+                                ShardOperations shardOperations,
+                                MemberSearchCacheEvictor memberSearchCacheEvictor,
+                                TeamStatsService teamStatsService,
+                                AgeAccumulatorProperties properties,
+                                MeterRegistry meterRegistry) {
+        this.queryFactory = queryFactory;
+        this.shardOperations = shardOperations;
+        this.memberSearchCacheEvictor = memberSearchCacheEvictor;
+        this.teamStatsService = teamStatsService;
+        this.properties = properties;
+
+        int count = stripeCount(properties.getStripes());
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.mask = count - 1;
+
+        this.flushTimer = Timer.builder("age-accumulator.flush").register(meterRegistry);
+        this.flushedMembers = Counter.builder("age-accumulator.flushed.members").register(meterRegistry);
+        this.failedFlushes = Counter.builder("age-accumulator.flush.failures").register(meterRegistry);
+        Gauge.builder("age-accumulator.pending.members", this, MemberAgeAccumulator::pendingMembers).register(meterRegistry);
+    }
+
+    public void increment(Long memberId) {
+        add(memberId, 1);
+    }
+
+    public void add(Long memberId, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        stripeOf(memberId).add(memberId, delta);
+    }
+
+    /**
+     * 아직 DB 에 반영되지 않은 증가분. DB 값 + 이 값이 현재 값이다.
+     */
+    public long pendingDelta(Long memberId) {
+        return stripeOf(memberId).pending(memberId);
+    }
+
+    public int pendingMembers() {
+        int total = 0;
+        for (Stripe stripe : stripes) {
+            total += stripe.size();
+        }
+        return total;
+    }
+
+    /**
+     * @return 반영한 member 수
+     */
+    @Scheduled(fixedDelayString = "${age-accumulator.flush-interval:PT1S}", initialDelayString = "${age-accumulator.flush-interval:PT1S}")
+    public synchronized int flush() {
+        Map<Long, Long> deltas = new HashMap<>();
+        for (Stripe stripe : stripes) {
+            stripe.drainTo(deltas);
+        }
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+
+        // 커밋된 shard 의 member. 뒤 shard 에서 실패해도 여기 있는 것은 다시 더하지 않는다.
+        Set<Long> applied = new HashSet<>();
+        try {
+            flushTimer.record(() -> shardOperations.runOnEachShard(() -> {
+                // 팀 집계 콜백보다 먼저 걸고, afterCommit 이 던져도 불리는 afterCompletion 에서 기록한다.
+                List<Long> updated = new ArrayList<>();
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (status == STATUS_COMMITTED) {
+                            applied.addAll(updated);
+                        }
+                    }
+                });
+                updated.addAll(update(deltas));
+            }));
+        } catch (RuntimeException e) {
+            failedFlushes.increment();
+            log.warn("age accumulator flush failed, {} members kept for the next flush: {}", deltas.size() - applied.size(), e.getMessage());
+            deltas.forEach((memberId, delta) -> {
+                if (!applied.contains(memberId)) {
+                    add(memberId, delta);
+                }
+            });
+            afterFlush(applied);
+            return 0;
+        }
+
+        afterFlush(applied);
+        return applied.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void afterFlush(Set<Long> applied) {
+        if (applied.isEmpty()) {
+            return;
+        }
+        flushedMembers.increment(applied.size());
+        memberSearchCacheEvictor.evictAll();
+    }
+
+    /**
+     * 지금 shard 에 있는 member 만 반영한다. (없는 id 는 다른 shard 의 것이거나 지워진 것)
+     * 팀 집계는 전체 재집계 대신 팀별 나이 합의 변화만 커밋 뒤에 넘긴다. (TeamStatsService#agesShifted)
+     *
+     * @return 반영한 member_id
+     */
+    private List<Long> update(Map<Long, Long> deltas) {
+        int chunkSize = properties.getMaxIdsPerStatement();
+        List<Long> requested = new ArrayList<>(deltas.keySet());
+        Map<Long, Long> present = new HashMap<>();
+        Map<Long, TeamAgeShift> shifts = new HashMap<>();
+        for (int from = 0; from < requested.size(); from += chunkSize) {
+            List<Long> chunk = requested.subList(from, Math.min(from + chunkSize, requested.size()));
+            // 바로 뒤에 update 할 row 라서 미리 잠가 둔다. 그러면 여기서 읽은 나이 + 델타가 update 뒤의 나이다.
+            List<Tuple> rows = queryFactory
+                    .select(member.id, member.team.id, member.age)
+                    .from(member)
+                    .where(member.id.in(chunk))
+                    .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                    .fetch();
+            for (Tuple row : rows) {
+                Long memberId = row.get(member.id);
+                long delta = deltas.get(memberId);
+                present.put(memberId, delta);
+
+                Long teamId = row.get(member.team.id);
+                if (teamId != null) {
+                    int age = row.get(member.age);
+                    shifts.computeIfAbsent(teamId, id -> new TeamAgeShift()).add(age, Math.addExact(age, Math.toIntExact(delta)));
+                }
+            }
+        }
+
+        update(groupByDelta(present));
+
+        if (!shifts.isEmpty()) {
+            teamStatsService.trackCommit();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    try {
+                        shifts.forEach(teamStatsService::agesShifted);
+                    } catch (RuntimeException e) {
+                        // 이미 커밋됐으므로 flush 를 실패로 만들지 않는다.
+                        log.error("team stats update after age flush failed, next reconcile will fix it", e);
+                    }
+                }
+            });
+        }
+        return new ArrayList<>(present.keySet());
+    }
+
+    private void update(Map<Long, List<Long>> idsByDelta) {
+        int chunkSize = properties.getMaxIdsPerStatement();
+        // 변경분 조회가 보도록 updated_at 도 올린다. (벌크 update 는 auditing 을 거치지 않는다)
+        LocalDateTime now = LocalDateTime.now();
+        idsByDelta.forEach((delta, ids) -> {
+            // age 는 int 라서 넘치는 델타는 잘라 쓰지 않고 실패시킨다. (flush 가 실패하면 증가분은 다시 쌓인다)
+            int increment = Math.toIntExact(delta);
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+                queryFactory
+                        .update(member)
+                        .set(member.age, member.age.add(increment))
+                        .set(member.updatedAt, now)
+                        .where(member.id.in(chunk))
+                        .execute();
+            }
+        });
+    }
+
+    /**
+     * 증가가 고르게 흩어지면 델타 값 종류가 적어서(대부분 1, 2 ...) 문장 수가 member 수보다 훨씬 적다.
+     */
+    private static Map<Long, List<Long>> groupByDelta(Map<Long, Long> deltas) {
+        Map<Long, List<Long>> idsByDelta = new HashMap<>();
+        deltas.forEach((memberId, delta) -> idsByDelta.computeIfAbsent(delta, d -> new ArrayList<>()).add(memberId));
+        return idsByDelta;
+    }
+
+    private Stripe stripeOf(Long memberId) {
+        long h = memberId * 0x9E3779B97F4A7C15L;
+        return stripes[(int) (h ^ (h >>> 32)) & mask];
+    }
+
+    private static int stripeCount(int configured) {
+        int target = configured > 0 ? configured : Runtime.getRuntime().availableProcessors() * 4;
+        return target <= 1 ? 1 : Integer.highestOneBit(target - 1) << 1;
+    }
+
+    /**
+     * 더하기끼리는 read 락을 같이 잡고 LongAdder 로 충돌을 흩는다. flush 만 write 락으로 맵을 통째로 떼어 간다.
+     */
+    private static final class Stripe {
+
+        private final StampedLock lock = new StampedLock();
+        private ConcurrentHashMap<Long, LongAdder> deltas = new ConcurrentHashMap<>();
+
+        void add(Long memberId, long delta) {
+            long stamp = lock.readLock();
+            try {
+                deltas.computeIfAbsent(memberId, id -> new LongAdder()).add(delta);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        long pending(Long memberId) {
+            long stamp = lock.readLock();
+            try {
+                LongAdder adder = deltas.get(memberId);
+                return adder == null ? 0 : adder.sum();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        int size() {
+            long stamp = lock.readLock();
+            try {
+                return deltas.size();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        void drainTo(Map<Long, Long> target) {
+            ConcurrentHashMap<Long, LongAdder> drained;
+            long stamp = lock.writeLock();
+            try {
+                drained = deltas;
+                deltas = new ConcurrentHashMap<>();
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+
+            drained.forEach((memberId, adder) -> {
+                long delta = adder.sum();
+                if (delta != 0) {
+                    target.put(memberId, delta);
+                }
+            });
+        }
+    }
+}
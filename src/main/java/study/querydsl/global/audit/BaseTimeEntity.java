@@ -0,0 +1,34 @@
+package study.querydsl.global.audit;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.MappedSuperclass;
+import lombok.Getter;
+import org.hibernate.annotations.ColumnDefault;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * 생성/수정 시각. 엔티티 저장/수정은 AuditingEntityListener 가 채운다.
+ * JDBC insert / 벌크 update 로 쓰는 곳(bulkAgePlus, soft delete InBatch, write-behind, age accumulator, 데이터 생성기)은 직접 넣어야 한다.
+ * 이때도 DB 의 current_timestamp 가 아닌 LocalDateTime.now() 를 넣어서 auditing, 변경분 조회의 cutoff 와 같은 JVM 시계를 쓴다.
+ * DB 기본값은 컬럼을 추가할 때 기존 row 를 채우기 위한 것이다. 앱의 insert 는 기본값에 기대지 않는다.
+ * (DB 시계가 JVM 보다 settle-delay 이상 늦으면 그 row 는 이미 내준 cursor 뒤에 놓여 변경분 조회에서 빠진다)
+ */
+@Getter
+@MappedSuperclass
+@EntityListeners(AuditingEntityListener.class)
+public abstract class BaseTimeEntity {
+
+    @CreatedDate
+    @Column(updatable = false)
+    @ColumnDefault("current_timestamp(6)")
+    private LocalDateTime createdAt;
+
+    @LastModifiedDate
+    @ColumnDefault("current_timestamp(6)")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,95 @@
+package study.querydsl.global.batch;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * 배치 작업의 partition 별 진행 위치. chunk 를 처리한 트랜잭션 안에서 같이 갱신되므로
+ * 중간에 죽어도 마지막으로 커밋된 chunk 다음부터 다시 시작한다.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_batch_checkpoint_job_partition", columnNames = {"job_name", "partition_no"}))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class BatchCheckpoint {
+
+    public enum Status {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "checkpoint_id")
+    private Long id;
+
+    @Column(name = "job_name", nullable = false)
+    private String jobName;
+
+    @Column(name = "partition_no", nullable = false)
+    private int partitionNo;
+
+    /** member_id 범위 [fromId, toId] */
+    private long fromId;
+    private long toId;
+
+    /** 이 id 까지는 처리가 커밋되었다. */
+    private long lastProcessedId;
+    private long processedCount;
+
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    private String lastError;
+    private LocalDateTime updatedAt;
+
+    public BatchCheckpoint(String jobName, int partitionNo, long fromId, long toId) {
+        this.jobName = jobName;
+        this.partitionNo = partitionNo;
+        this.fromId = fromId;
+        this.toId = toId;
+        this.lastProcessedId = fromId - 1;
+        this.status = Status.RUNNING;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public void advance(long lastProcessedId, int count) {
+        this.lastProcessedId = lastProcessedId;
+        this.processedCount += count;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public void complete() {
+        this.status = Status.COMPLETED;
+        this.lastError = null;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public void fail(String error) {
+        this.status = Status.FAILED;
+        this.lastError = error;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public void resume() {
+        this.status = Status.RUNNING;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public boolean isCompleted() {
+        return status == Status.COMPLETED;
+    }
+}
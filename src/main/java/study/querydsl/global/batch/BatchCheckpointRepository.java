@@ -0,0 +1,19 @@
+package study.querydsl.global.batch;
+
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+@Lazy
+public interface BatchCheckpointRepository extends JpaRepository<BatchCheckpoint, Long> {
+
+    List<BatchCheckpoint> findByJobNameOrderByPartitionNo(String jobName);
+
+    @Modifying
+    @Query("delete from BatchCheckpoint c where c.jobName = :jobName")
+    int deleteByJobName(@Param("jobName") String jobName);
+}
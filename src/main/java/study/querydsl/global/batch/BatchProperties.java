@@ -0,0 +1,20 @@
+package study.querydsl.global.batch;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "batch")
+public class BatchProperties {
+
+    /** member_id 범위를 몇 조각으로 나눌지 (처음 실행할 때만 쓰고, 이어서 실행할 때는 저장된 범위를 쓴다) */
+    private int partitions = 8;
+
+    /** 동시에 처리할 partition 수 */
+    private int threads = 4;
+
+    /** 트랜잭션 하나에서 처리할 row 수. 끝나면 flush/clear 한다. */
+    private int chunkSize = 500;
+}
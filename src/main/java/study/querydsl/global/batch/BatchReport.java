@@ -0,0 +1,24 @@
+package study.querydsl.global.batch;
+
+import java.util.List;
+
+/**
+ * 이번 실행에서 처리한 양. 이전 실행에서 끝낸 partition 은 processed 0 으로 들어간다.
+ */
+public record BatchReport(String jobName, long elapsedMs, List<PartitionResult> partitions) {
+
+    public long processed() {
+        return partitions.stream().mapToLong(PartitionResult::processed).sum();
+    }
+
+    public boolean isCompleted() {
+        return partitions.stream().allMatch(partition -> partition.error() == null);
+    }
+
+    public record PartitionResult(int partition, long fromId, long toId, long processed, long elapsedMs, String error) {
+
+        public double rowsPerSecond() {
+            return elapsedMs == 0 ? processed : processed * 1000.0 / elapsedMs;
+        }
+    }
+}
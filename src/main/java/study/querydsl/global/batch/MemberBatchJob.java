@@ -0,0 +1,23 @@
+package study.querydsl.global.batch;
+
+import study.querydsl.domain.member.entity.Member;
+
+import java.util.List;
+
+/**
+ * member 전체를 훑으면서 값을 다시 계산하거나 채우는 작업.
+ * process 는 chunk 하나마다 새 트랜잭션에서 불리고, chunk 의 Member 는 영속 상태라 값을 바꾸면 커밋 때 반영된다.
+ * 같은 chunk 가 두 번 처리될 일은 없지만(체크포인트와 같은 트랜잭션), 실패한 chunk 는 재시작 시 처음부터 다시 처리된다.
+ */
+public interface MemberBatchJob {
+
+    /** 체크포인트 키. 이름이 같으면 이어서 실행한다. */
+    String name();
+
+    void process(List<Member> chunk);
+
+    /** chunk 를 읽을 때 team 을 같이 fetch join 할지 */
+    default boolean fetchTeam() {
+        return false;
+    }
+}
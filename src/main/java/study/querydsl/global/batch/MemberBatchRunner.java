@@ -0,0 +1,184 @@
+package study.querydsl.global.batch;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.domain.member.entity.Member;
+import study.querydsl.global.shard.ShardOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static study.querydsl.domain.member.entity.QMember.member;
+import static study.querydsl.domain.team.entity.QTeam.team;
+
+/**
+ * member 를 member_id 범위로 나눠서 병렬로 처리한다.
+ *
+ * - 처음 실행하면 min/max member_id 로 partition 을 나누고 batch_checkpoint 에 저장한다. 이후 추가된 member 는 범위 밖이라 처리하지 않는다.
+ * - partition 안에서는 member_id > 마지막 처리 id 로 keyset 페이징하고, chunk 마다 트랜잭션 하나에서 처리 + 체크포인트 갱신 + flush/clear 한다.
+ * - 같은 이름으로 다시 실행하면 끝나지 않은 partition 만 마지막 체크포인트부터 이어서 돈다. 처음부터 다시 돌리려면 reset 한다.
+ * 배치를 돌릴 때만 필요하므로 기동 시에는 만들지 않는다(@Lazy).
+ * member_id 범위와 체크포인트가 DB 하나를 전제로 하므로 shard 를 쓰면 돌리지 않는다.
+ */
+@Slf4j
+@Lazy
+@Component
+@EnableConfigurationProperties(BatchProperties.class)
+public class MemberBatchRunner {
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final BatchCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardOperations shardOperations;
+    private final BatchProperties properties;
+
+    public MemberBatchRunner(EntityManager em,
+                             JPAQueryFactory queryFactory,
+                             BatchCheckpointRepository checkpointRepository,
+                             PlatformTransactionManager transactionManager,
+                             ShardOperations shardOperations,
+                             BatchProperties properties) {
+        this.em = em;
+        this.queryFactory = queryFactory;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shardOperations = shardOperations;
+        this.properties = properties;
+    }
+
+    public BatchReport run(MemberBatchJob job) {
+        shardOperations.rejectIfSharded("member batch");
+        long start = System.currentTimeMillis();
+        List<BatchCheckpoint> checkpoints = checkpoints(job.name());
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, properties.getThreads()), runnable -> {
+            Thread thread = new Thread(runnable, "member-batch-" + job.name() + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            List<CompletableFuture<BatchReport.PartitionResult>> futures = new ArrayList<>();
+            for (BatchCheckpoint checkpoint : checkpoints) {
+                futures.add(CompletableFuture.supplyAsync(() -> runPartition(job, checkpoint.getId()), executor));
+            }
+
+            List<BatchReport.PartitionResult> results = futures.stream().map(CompletableFuture::join).toList();
+            BatchReport report = new BatchReport(job.name(), System.currentTimeMillis() - start, results);
+            for (BatchReport.PartitionResult result : results) {
+                log.info("batch {} partition {} [{}..{}] processed={} in {} ms ({} rows/s){}",
+                        job.name(), result.partition(), result.fromId(), result.toId(), result.processed(), result.elapsedMs(),
+                        String.format("%.0f", result.rowsPerSecond()), result.error() == null ? "" : " failed: " + result.error());
+            }
+            log.info("batch {} processed {} rows in {} ms", job.name(), report.processed(), report.elapsedMs());
+            return report;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * 저장된 체크포인트를 지운다. 다음 run 은 partition 을 새로 나눠서 처음부터 돈다.
+     */
+    public void reset(String jobName) {
+        transactionTemplate.executeWithoutResult(status -> checkpointRepository.deleteByJobName(jobName));
+    }
+
+    private List<BatchCheckpoint> checkpoints(String jobName) {
+        return transactionTemplate.execute(status -> {
+            List<BatchCheckpoint> existing = checkpointRepository.findByJobNameOrderByPartitionNo(jobName);
+            if (!existing.isEmpty()) {
+                return existing;
+            }
+            return checkpointRepository.saveAll(partition(jobName));
+        });
+    }
+
+    private List<BatchCheckpoint> partition(String jobName) {
+        Long minId = queryFactory.select(member.id.min()).from(member).fetchOne();
+        Long maxId = queryFactory.select(member.id.max()).from(member).fetchOne();
+        if (minId == null || maxId == null) {
+            return List.of();
+        }
+
+        int partitions = Math.max(1, properties.getPartitions());
+        long size = Math.max(1, (maxId - minId + partitions) / partitions);
+
+        List<BatchCheckpoint> checkpoints = new ArrayList<>();
+        for (long from = minId; from <= maxId; from += size) {
+            checkpoints.add(new BatchCheckpoint(jobName, checkpoints.size(), from, Math.min(maxId, from + size - 1)));
+        }
+        return checkpoints;
+    }
+
+    private BatchReport.PartitionResult runPartition(MemberBatchJob job, Long checkpointId) {
+        long start = System.currentTimeMillis();
+        long processed = 0;
+        BatchCheckpoint checkpoint = checkpointRepository.findById(checkpointId).orElseThrow();
+        if (checkpoint.isCompleted()) {
+            return new BatchReport.PartitionResult(checkpoint.getPartitionNo(), checkpoint.getFromId(), checkpoint.getToId(), 0, 0, null);
+        }
+
+        try {
+            int count;
+            do {
+                count = transactionTemplate.execute(status -> processChunk(job, checkpointId));
+                processed += count;
+            } while (count > 0);
+
+            transactionTemplate.executeWithoutResult(status -> em.find(BatchCheckpoint.class, checkpointId).complete());
+            return new BatchReport.PartitionResult(checkpoint.getPartitionNo(), checkpoint.getFromId(), checkpoint.getToId(),
+                    processed, System.currentTimeMillis() - start, null);
+        } catch (RuntimeException e) {
+            log.warn("batch {} partition {} failed, resume from checkpoint on next run", job.name(), checkpoint.getPartitionNo(), e);
+            String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+            transactionTemplate.executeWithoutResult(status -> em.find(BatchCheckpoint.class, checkpointId).fail(error));
+            return new BatchReport.PartitionResult(checkpoint.getPartitionNo(), checkpoint.getFromId(), checkpoint.getToId(),
+                    processed, System.currentTimeMillis() - start, error);
+        }
+    }
+
+    /**
+     * chunk 처리와 체크포인트 갱신을 같은 트랜잭션에서 한다. 처리한 row 수를 돌려주고, 0 이면 partition 이 끝난 것이다.
+     */
+    private int processChunk(MemberBatchJob job, Long checkpointId) {
+        BatchCheckpoint checkpoint = em.find(BatchCheckpoint.class, checkpointId);
+        if (checkpoint.getStatus() == BatchCheckpoint.Status.FAILED) {
+            checkpoint.resume();
+        }
+
+        JPAQuery<Member> query = queryFactory
+                .selectFrom(member)
+                .where(member.id.gt(checkpoint.getLastProcessedId()), member.id.loe(checkpoint.getToId()))
+                .orderBy(member.id.asc())
+                .limit(properties.getChunkSize());
+        if (job.fetchTeam()) {
+            query.leftJoin(member.team, team).fetchJoin();
+        }
+
+        List<Member> chunk = query.fetch();
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+
+        job.process(chunk);
+        checkpoint.advance(chunk.get(chunk.size() - 1).getId(), chunk.size());
+
+        em.flush();
+        em.clear();
+        return chunk.size();
+    }
+}
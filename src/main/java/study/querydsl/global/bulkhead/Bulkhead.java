@@ -0,0 +1,17 @@
+package study.querydsl.global.bulkhead;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 컨트롤러 핸들러마다 동시 실행 수를 제한한다.
+ * 같은 이름을 쓰는 핸들러끼리는 하나의 bulkhead(커넥션 몫)를 공유한다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Bulkhead {
+
+    String value();
+}
@@ -0,0 +1,18 @@
+package study.querydsl.global.bulkhead;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public class BulkheadFullException extends RuntimeException {
+
+    private final String bulkheadName;
+    private final Duration retryAfter;
+
+    public BulkheadFullException(String bulkheadName, Duration retryAfter) {
+        super("bulkhead '" + bulkheadName + "' is full");
+        this.bulkheadName = bulkheadName;
+        this.retryAfter = retryAfter;
+    }
+}
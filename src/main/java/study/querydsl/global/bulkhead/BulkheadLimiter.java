@@ -0,0 +1,59 @@
+package study.querydsl.global.bulkhead;
+
+import lombok.Getter;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 동시 실행 permit + 크기가 제한된 대기열.
+ * 대기열까지 꽉 차면 기다리지 않고 바로 거절해서 요청이 쌓이지 않게 한다.
+ */
+public class BulkheadLimiter {
+
+    @Getter
+    private final String name;
+    @Getter
+    private final BulkheadProperties.Limit limit;
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    public BulkheadLimiter(String name, BulkheadProperties.Limit limit) {
+        this.name = name;
+        this.limit = limit;
+        this.permits = new Semaphore(limit.getMaxConcurrent(), true);
+    }
+
+    public boolean tryAcquire() {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+
+        if (waiting.incrementAndGet() > limit.getMaxWaiting()) {
+            waiting.decrementAndGet();
+            return false;
+        }
+
+        try {
+            return permits.tryAcquire(limit.getMaxWait().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public int getActiveCount() {
+        return limit.getMaxConcurrent() - permits.availablePermits();
+    }
+
+    public int getWaitingCount() {
+        return waiting.get();
+    }
+}
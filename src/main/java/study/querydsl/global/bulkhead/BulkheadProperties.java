@@ -0,0 +1,34 @@
+package study.querydsl.global.bulkhead;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * bulkhead.defaults.* 로 기본값을, bulkhead.endpoints.{name}.* 로 엔드포인트별 값을 덮어쓴다.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "bulkhead")
+public class BulkheadProperties {
+
+    private Limit defaults = new Limit();
+    private Map<String, Limit> endpoints = new HashMap<>();
+
+    public Limit limitOf(String name) {
+        return endpoints.getOrDefault(name, defaults);
+    }
+
+    @Getter
+    @Setter
+    public static class Limit {
+        private int maxConcurrent = 10;
+        private int maxWaiting = 10;
+        private Duration maxWait = Duration.ofMillis(100);
+        private Duration retryAfter = Duration.ofSeconds(1);
+    }
+}
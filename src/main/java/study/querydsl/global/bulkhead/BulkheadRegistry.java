@@ -0,0 +1,55 @@
+package study.querydsl.global.bulkhead;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@RequiredArgsConstructor
+public class BulkheadRegistry {
+
+    private final BulkheadProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, BulkheadLimiter> limiters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+
+    public BulkheadLimiter limiter(String name) {
+        return limiters.computeIfAbsent(name, this::register);
+    }
+
+    public void acquire(String name) {
+        BulkheadLimiter limiter = limiter(name);
+        if (!limiter.tryAcquire()) {
+            rejections.get(name).increment();
+            throw new BulkheadFullException(name, limiter.getLimit().getRetryAfter());
+        }
+    }
+
+    public void release(String name) {
+        limiter(name).release();
+    }
+
+    private BulkheadLimiter register(String name) {
+        BulkheadLimiter limiter = new BulkheadLimiter(name, properties.limitOf(name));
+
+        Gauge.builder("bulkhead.active", limiter, BulkheadLimiter::getActiveCount)
+                .tag("name", name)
+                .register(meterRegistry);
+        Gauge.builder("bulkhead.waiting", limiter, BulkheadLimiter::getWaitingCount)
+                .tag("name", name)
+                .register(meterRegistry);
+        Gauge.builder("bulkhead.max.concurrent", limiter, l -> l.getLimit().getMaxConcurrent())
+                .tag("name", name)
+                .register(meterRegistry);
+        rejections.put(name, Counter.builder("bulkhead.rejected")
+                .tag("name", name)
+                .register(meterRegistry));
+
+        return limiter;
+    }
+}
@@ -0,0 +1,54 @@
+package study.querydsl.global.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Page;
+import study.querydsl.domain.member.dto.MemberFacetsDto;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 검색 결과 캐시. Caffeine(W-TinyLFU)에 row 수 기준 무게 제한을 건다.
+ * recordStats 를 켜 두면 actuator 가 cache.gets / cache.evictions 등을 내보낸다.
+ */
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(SearchCacheProperties.class)
+public class CacheConfig {
+
+    public static final String MEMBER_SEARCH = "memberSearch";
+
+    /** count 를 건너뛴 페이지는 total 이 정확하지 않으므로 캐시하지 않는다. */
+    public static final String UNLESS_UNCOUNTED = "#result instanceof T(study.querydsl.global.deadline.UncountedPage)";
+
+    @Bean
+    public CacheManager cacheManager(SearchCacheProperties properties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumWeight(properties.getMaximumWeight())
+                .weigher(CacheConfig::weigh)
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats());
+        cacheManager.setCacheNames(List.of(MEMBER_SEARCH));
+        return cacheManager;
+    }
+
+    private static int weigh(Object key, Object value) {
+        if (value instanceof Page<?> page) {
+            return page.getNumberOfElements() + 1;
+        }
+        if (value instanceof MemberFacetsDto facets) {
+            return facets.getPage().getNumberOfElements() + facets.getTeams().size() + facets.getAgeBuckets().size() + 1;
+        }
+        if (value instanceof Collection<?> collection) {
+            return collection.size() + 1;
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,52 @@
+package study.querydsl.global.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Member / Team 이 바뀌면 검색 캐시를 비운다.
+ * 트랜잭션 안이면 바로 한 번 비우고, 끝난 뒤(커밋이든 롤백이든)에 한 번 더 비운다.
+ * 바로 비우는 것은 변경 전 결과가 트랜잭션 동안 계속 나가지 않게 하려는 것이고,
+ * 끝난 뒤 비우는 것은 트랜잭션 도중에 (커밋 전 상태로) 캐시에 들어간 결과를 지우려는 것이다.
+ * 끝난 뒤 비우는 synchronization 은 트랜잭션마다 하나만 건다.
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberSearchCacheEvictor {
+
+    private final CacheManager cacheManager;
+
+    public void evictAll() {
+        clear();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        // getSynchronizations 는 지금 트랜잭션(REQUIRES_NEW 로 중단된 바깥 트랜잭션 제외)의 것만 돌려준다.
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof ClearOnCompletion) {
+                return;
+            }
+        }
+        TransactionSynchronizationManager.registerSynchronization(new ClearOnCompletion());
+    }
+
+    private void clear() {
+        Cache cache = cacheManager.getCache(CacheConfig.MEMBER_SEARCH);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    private final class ClearOnCompletion implements TransactionSynchronization {
+
+        @Override
+        public void afterCompletion(int status) {
+            clear();
+        }
+    }
+}
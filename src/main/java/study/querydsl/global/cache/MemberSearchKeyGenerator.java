@@ -0,0 +1,58 @@
+package study.querydsl.global.cache;
+
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import study.querydsl.domain.member.dto.MemberSearchCondition;
+import study.querydsl.global.shard.ShardContext;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 검색 캐시 키. 변경 가능한 MemberSearchCondition / Pageable 을 그대로 키로 쓰지 않고
+ * 값만 뽑아서 불변 record 로 만든다.
+ */
+@Component("memberSearchKeyGenerator")
+public class MemberSearchKeyGenerator implements KeyGenerator {
+
+    @Override
+    public Object generate(Object target, Method method, Object... params) {
+        List<Object> parts = new ArrayList<>(params.length);
+        for (Object param : params) {
+            parts.add(normalize(param));
+        }
+        return new MemberSearchKey(ShardContext.current(), AopProxyUtils.ultimateTargetClass(target), method.getName(), List.copyOf(parts));
+    }
+
+    private Object normalize(Object param) {
+        if (param instanceof MemberSearchCondition condition) {
+            return new ConditionKey(condition.getUsername(), condition.getTeamName(), condition.getAgeGoe(), condition.getAgeLoe());
+        }
+        if (param instanceof Pageable pageable) {
+            return pageable.isPaged()
+                    ? new PageKey(pageable.getOffset(), pageable.getPageSize(), pageable.getSort().toString())
+                    : new PageKey(-1, -1, pageable.getSort().toString());
+        }
+        if (param instanceof Collection<?> collection) {
+            return collection.stream().map(String::valueOf).sorted().toList();
+        }
+        return param == null ? "null" : param;
+    }
+
+    /**
+     * shard 별로 같은 조건의 결과가 다르므로 shard 번호도 키에 넣는다. (shard 를 안 쓰면 null)
+     * 메서드 이름이 같은 검색 구현(JPA, querydsl-sql)끼리 결과를 섞지 않도록 구현 클래스도 넣는다.
+     */
+    record MemberSearchKey(Integer shard, Class<?> engine, String method, List<Object> params) {
+    }
+
+    record ConditionKey(String username, String teamName, Integer ageGoe, Integer ageLoe) {
+    }
+
+    record PageKey(long offset, int size, String sort) {
+    }
+}
@@ -0,0 +1,22 @@
+package study.querydsl.global.cache;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Member, Team 에 붙는 JPA 엔티티 리스너. (Hibernate 가 스프링 빈으로 생성한다)
+ */
+@RequiredArgsConstructor
+public class SearchCacheInvalidationListener {
+
+    private final MemberSearchCacheEvictor memberSearchCacheEvictor;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        memberSearchCacheEvictor.evictAll();
+    }
+}
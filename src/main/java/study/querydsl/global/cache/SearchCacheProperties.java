@@ -0,0 +1,17 @@
+package study.querydsl.global.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "search-cache")
+public class SearchCacheProperties {
+
+    /** 캐시에 담을 수 있는 총 row 수 (페이지 하나의 무게 = content 개수 + 1) */
+    private long maximumWeight = 100_000;
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+}
@@ -0,0 +1,32 @@
+package study.querydsl.global.datagen;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "datagen")
+public class DataGeneratorProperties {
+
+    /** 같은 seed 면 항상 같은 데이터가 만들어진다. */
+    private long seed = 42L;
+
+    private int teams = 1_000;
+    private long members = 1_000_000L;
+
+    /** 팀 크기 Zipf 지수. 클수록 소수의 팀에 멤버가 몰린다. */
+    private double teamSizeSkew = 1.1;
+    private double nullTeamRatio = 0.05;
+
+    /** 서로 다른 username 개수와 그 빈도의 Zipf 지수 */
+    private int usernameCardinality = 200_000;
+    private double usernameSkew = 0.8;
+
+    private double ageMean = 35;
+    private double ageStdDev = 12;
+    private int ageMin = 1;
+    private int ageMax = 99;
+
+    private int batchSize = 5_000;
+}
@@ -0,0 +1,111 @@
+package study.querydsl.global.datagen;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * 성능 테스트용 데이터 생성기 (perf 프로필)
+ * InitMember 처럼 엔티티를 persist 하면 수천만 건은 감당이 안 되므로 JDBC batch insert 로 바로 넣는다.
+ *
+ * - 팀 크기, username 빈도는 Zipf 분포라 소수의 큰 팀 / 흔한 이름이 생긴다.
+ * - 나이는 절단 정규분포, 일부 멤버는 팀이 없다.
+ */
+@Slf4j
+@Profile("perf")
+@Component
+@RequiredArgsConstructor
+@EnableConfigurationProperties(DataGeneratorProperties.class)
+public class MemberDataGenerator implements ApplicationRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataGeneratorProperties properties;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Long existing = jdbcTemplate.queryForObject("select count(*) from member", Long.class);
+        if (existing != null && existing > 0) {
+            log.info("member table already has {} rows, skip data generation", existing);
+            return;
+        }
+
+        generate();
+    }
+
+    public void generate() {
+        long start = System.currentTimeMillis();
+        List<Long> teamIds = insertTeams();
+        insertMembers(teamIds);
+        log.info("generated {} teams / {} members in {} ms",
+                teamIds.size(), properties.getMembers(), System.currentTimeMillis() - start);
+    }
+
+    private List<Long> insertTeams() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 1; i <= properties.getTeams(); i++) {
+            rows.add(new Object[]{teamName(i), now, now});
+        }
+        jdbcTemplate.batchUpdate("insert into team (name, created_at, updated_at) values (?, ?, ?)", rows);
+
+        // 팀 순위 1 = 가장 큰 팀, team_id 순서와 맞춘다.
+        return jdbcTemplate.queryForList("select team_id from team order by team_id", Long.class);
+    }
+
+    private void insertMembers(List<Long> teamIds) {
+        SplittableRandom random = new SplittableRandom(properties.getSeed());
+        ZipfSampler teamSampler = new ZipfSampler(teamIds.size(), properties.getTeamSizeSkew());
+        ZipfSampler usernameSampler = new ZipfSampler(properties.getUsernameCardinality(), properties.getUsernameSkew());
+
+        List<Object[]> batch = new ArrayList<>(properties.getBatchSize());
+        for (long i = 0; i < properties.getMembers(); i++) {
+            Long teamId = random.nextDouble() < properties.getNullTeamRatio()
+                    ? null
+                    : teamIds.get(teamSampler.sample(random) - 1);
+            batch.add(new Object[]{"user" + usernameSampler.sample(random), age(random), teamId, null, null});
+
+            if (batch.size() == properties.getBatchSize()) {
+                flush(batch);
+                if ((i + 1) % (properties.getBatchSize() * 100L) == 0) {
+                    log.info("inserted {} / {} members", i + 1, properties.getMembers());
+                }
+            }
+        }
+        flush(batch);
+    }
+
+    /**
+     * 생성/수정 시각은 DB 기본값(DB 시계)에 맡기지 않고 넣는다. (BaseTimeEntity)
+     */
+    private void flush(List<Object[]> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (Object[] row : batch) {
+            row[3] = now;
+            row[4] = now;
+        }
+        jdbcTemplate.batchUpdate("insert into member (username, age, team_id, created_at, updated_at) values (?, ?, ?, ?, ?)", batch);
+        batch.clear();
+    }
+
+    private int age(SplittableRandom random) {
+        int age = (int) Math.round(properties.getAgeMean() + random.nextGaussian() * properties.getAgeStdDev());
+        return Math.max(properties.getAgeMin(), Math.min(properties.getAgeMax(), age));
+    }
+
+    public static String teamName(int rank) {
+        return String.format("team%05d", rank);
+    }
+}
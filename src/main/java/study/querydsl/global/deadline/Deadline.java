@@ -0,0 +1,21 @@
+package study.querydsl.global.deadline;
+
+import java.time.Duration;
+
+/**
+ * 요청이 끝나야 하는 시각. System.nanoTime 기준이라 시계가 바뀌어도 영향이 없다.
+ */
+public record Deadline(long expiresAtNanos) {
+
+    public static Deadline after(Duration timeout) {
+        return new Deadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    public Duration remaining() {
+        return Duration.ofNanos(expiresAtNanos - System.nanoTime());
+    }
+
+    public boolean isExpired() {
+        return expiresAtNanos - System.nanoTime() <= 0;
+    }
+}
@@ -0,0 +1,45 @@
+package study.querydsl.global.deadline;
+
+import java.util.function.Supplier;
+
+/**
+ * 현재 요청의 deadline. DeadlineInterceptor 가 요청 시작에 넣고 끝나면 지운다.
+ * 다른 스레드(shard executor 등)로 넘길 때는 callWithin 으로 감싼다.
+ */
+public final class DeadlineContext {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private DeadlineContext() {
+    }
+
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    public static void set(Deadline deadline) {
+        CURRENT.set(deadline);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    public static <T> T callWithin(Deadline deadline, Supplier<T> action) {
+        Deadline previous = CURRENT.get();
+        if (deadline == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(deadline);
+        }
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package study.querydsl.global.deadline;
+
+/**
+ * 쿼리를 보내기 전에 이미 deadline 이 지났다. DB 까지 가지 않고 바로 실패시킨다.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException() {
+        super("request deadline exceeded before the query was sent");
+    }
+}
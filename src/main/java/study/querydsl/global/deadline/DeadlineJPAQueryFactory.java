@@ -0,0 +1,21 @@
+package study.querydsl.global.deadline;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+
+/**
+ * 만드는 모든 조회 쿼리에 요청의 남은 시간을 timeout 으로 건다.
+ * 여러 쿼리를 나눠 쓰는 곳(페이지 content / count)은 DeadlineQueries 로 다시 조정한다.
+ */
+public class DeadlineJPAQueryFactory extends JPAQueryFactory {
+
+    public DeadlineJPAQueryFactory(EntityManager entityManager) {
+        super(entityManager);
+    }
+
+    @Override
+    public JPAQuery<?> query() {
+        return DeadlineQueries.withRemaining(super.query());
+    }
+}
@@ -0,0 +1,29 @@
+package study.querydsl.global.deadline;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * deadline.timeouts{stage=before-query} : 남은 시간이 없어서 쿼리를 보내지 않았다.
+ * deadline.timeouts{stage=database}     : DB 에서 query timeout 으로 취소되었다.
+ */
+@Component
+public class DeadlineMetrics {
+
+    private final Counter beforeQuery;
+    private final Counter database;
+
+    public DeadlineMetrics(MeterRegistry meterRegistry) {
+        this.beforeQuery = Counter.builder("deadline.timeouts").tag("stage", "before-query").register(meterRegistry);
+        this.database = Counter.builder("deadline.timeouts").tag("stage", "database").register(meterRegistry);
+    }
+
+    public void beforeQuery() {
+        beforeQuery.increment();
+    }
+
+    public void database() {
+        database.increment();
+    }
+}
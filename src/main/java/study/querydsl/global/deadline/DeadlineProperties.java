@@ -0,0 +1,35 @@
+package study.querydsl.global.deadline;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * deadline.default-timeout 으로 기본값을, deadline.endpoints.[/v3/members] 처럼 URL 패턴별 값을 덮어쓴다.
+ * 클라이언트가 header 로 보낸 값은 max-timeout 을 넘지 못한다.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "deadline")
+public class DeadlineProperties {
+
+    private boolean enabled = true;
+
+    /** 남은 시간(ms)을 담는 요청 header */
+    private String header = "X-Request-Timeout";
+
+    private Duration defaultTimeout = Duration.ofSeconds(10);
+    private Duration maxTimeout = Duration.ofSeconds(30);
+    private Map<String, Duration> endpoints = new HashMap<>();
+
+    /** 페이지 조회에서 content 쿼리에 줄 몫. count 쿼리는 content 가 끝난 뒤 남은 시간을 다 쓴다. */
+    private double contentShare = 0.7;
+
+    public Duration timeoutOf(String pattern) {
+        return pattern == null ? defaultTimeout : endpoints.getOrDefault(pattern, defaultTimeout);
+    }
+}
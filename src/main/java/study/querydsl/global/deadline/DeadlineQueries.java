@@ -0,0 +1,109 @@
+package study.querydsl.global.deadline;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.sql.SQLQuery;
+import com.querydsl.sql.StatementOptions;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * 남은 시간을 쿼리 timeout 으로 건다. deadline 이 없으면(요청 밖, 배치 등) 아무것도 하지 않는다.
+ * 몫은 ms 로 나누고, JDBC 의 Statement#setQueryTimeout 이 초 단위라서 마지막에 초로 내림한다. (몫 1.75초 -> 1초)
+ * 1초보다 짧게는 걸 수 없으므로 몫이 1초 미만이면 1초를 건다. 빼도 되는 count 쿼리는 이때 아예 보내지 않는다. (pageOf)
+ * timeout 이 나면 드라이버가 DB 에 실행 중인 statement 취소를 보내고(MariaDB 는 KILL QUERY) 커넥션을 돌려준다.
+ */
+public final class DeadlineQueries {
+
+    public static final String TIMEOUT_HINT = "jakarta.persistence.query.timeout";
+
+    /** JDBC query timeout 으로 걸 수 있는 가장 짧은 시간 */
+    private static final long MIN_TIMEOUT_MILLIS = 1000;
+
+    private DeadlineQueries() {
+    }
+
+    /**
+     * 남은 시간 전부를 준다. count 쿼리처럼 마지막에 도는 쿼리는 실행 직전에 다시 불러서 그때 남은 시간을 건다.
+     */
+    public static <T> JPAQuery<T> withRemaining(JPAQuery<T> query) {
+        return withShare(query, 1.0);
+    }
+
+    /**
+     * 남은 시간 중 share 만큼만 준다. 뒤에 다른 쿼리가 남아 있을 때 쓴다.
+     * hint 는 ms 지만 Hibernate 도 초로 바꿔서 JDBC 에 넘기므로, 반올림되지 않게 초 단위로 맞춘 값을 넣는다.
+     */
+    public static <T> JPAQuery<T> withShare(JPAQuery<T> query, double share) {
+        Integer seconds = timeoutSeconds(share);
+        if (seconds != null) {
+            query.setHint(TIMEOUT_HINT, seconds * 1000);
+        }
+        return query;
+    }
+
+    public static <T> SQLQuery<T> withShare(SQLQuery<T> query, double share) {
+        Integer seconds = timeoutSeconds(share);
+        if (seconds != null) {
+            query.setStatementOptions(StatementOptions.builder().setQueryTimeout(seconds).build());
+        }
+        return query;
+    }
+
+    /**
+     * content 는 이미 가져왔고 count 만 남은 페이지를 만든다.
+     * 남은 시간이 1초보다 적으면 count 에 1초를 걸어 남은 시간보다 오래 기다리는 대신 count 를 건너뛰고 UncountedPage 를 돌려준다.
+     */
+    public static <T> Page<T> pageOf(List<T> content, Pageable pageable, JPAQuery<Long> countQuery) {
+        return pageOf(content, pageable, () -> count(withRemaining(countQuery).fetchOne()));
+    }
+
+    public static <T> Page<T> pageOf(List<T> content, Pageable pageable, SQLQuery<Long> countQuery) {
+        return pageOf(content, pageable, () -> count(withShare(countQuery, 1.0).fetchOne()));
+    }
+
+    /**
+     * 남은 시간 안에 timeout 을 걸고 count 를 보낼 수 있는지. 여러 count 를 직접 모으는 곳(shard 검색)에서 쓴다.
+     */
+    public static boolean canCount() {
+        Deadline deadline = DeadlineContext.current();
+        return deadline == null || deadline.remaining().toMillis() >= MIN_TIMEOUT_MILLIS;
+    }
+
+    private static <T> Page<T> pageOf(List<T> content, Pageable pageable, LongSupplier count) {
+        if (canCount() || totalFromContent(content, pageable)) {
+            return PageableExecutionUtils.getPage(content, pageable, count);
+        }
+        return new UncountedPage<>(content, pageable);
+    }
+
+    /**
+     * PageableExecutionUtils 와 같은 기준: 마지막 페이지라서 content 만으로 total 이 정해지면 count 가 필요 없다.
+     */
+    private static boolean totalFromContent(List<?> content, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return true;
+        }
+        return pageable.getPageSize() > content.size() && (pageable.getOffset() == 0 || !content.isEmpty());
+    }
+
+    private static long count(Long count) {
+        return count == null ? 0 : count;
+    }
+
+    private static Integer timeoutSeconds(double share) {
+        Deadline deadline = DeadlineContext.current();
+        if (deadline == null) {
+            return null;
+        }
+        if (deadline.isExpired()) {
+            throw new DeadlineExceededException();
+        }
+
+        long budgetMillis = (long) (deadline.remaining().toMillis() * share);
+        return (int) Math.max(1, budgetMillis / MIN_TIMEOUT_MILLIS);
+    }
+}
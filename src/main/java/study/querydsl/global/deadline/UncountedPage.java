@@ -0,0 +1,22 @@
+package study.querydsl.global.deadline;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * deadline 이 모자라서 count 쿼리를 건너뛴 페이지.
+ * total 은 정확한 값이 아니라 지금까지 본 건수에, 페이지가 꽉 찼으면 1 을 더한 하한이다. (다음 페이지가 있는지만 맞다)
+ * 응답에는 totalKnown=false 로 나가고, 검색 캐시에는 넣지 않는다.
+ */
+public class UncountedPage<T> extends PageImpl<T> {
+
+    public UncountedPage(List<T> content, Pageable pageable) {
+        super(content, pageable, pageable.getOffset() + content.size() + (content.size() == pageable.getPageSize() ? 1 : 0));
+    }
+
+    public boolean isTotalKnown() {
+        return false;
+    }
+}
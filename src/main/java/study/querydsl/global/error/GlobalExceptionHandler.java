@@ -0,0 +1,116 @@
+package study.querydsl.global.error;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import study.querydsl.domain.member.repository.InvalidCursorException;
+import study.querydsl.domain.member.repository.UnsupportedFieldException;
+import study.querydsl.domain.member.repository.UnsupportedSortException;
+import study.querydsl.global.bulkhead.BulkheadFullException;
+import study.querydsl.global.deadline.DeadlineExceededException;
+import study.querydsl.global.deadline.DeadlineMetrics;
+import study.querydsl.global.shard.ShardNotSelectedException;
+import study.querydsl.global.writebehind.WriteBehindFullException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+
+@Slf4j
+@RestControllerAdvice
+@RequiredArgsConstructor
+public class GlobalExceptionHandler {
+
+    private final DeadlineMetrics deadlineMetrics;
+
+    @ExceptionHandler(BulkheadFullException.class)
+    public ResponseEntity<ProblemDetail> handleBulkheadFull(BulkheadFullException e) {
+        return serviceUnavailable(e.getRetryAfter(), e.getMessage());
+    }
+
+    @ExceptionHandler(WriteBehindFullException.class)
+    public ResponseEntity<ProblemDetail> handleWriteBehindFull(WriteBehindFullException e) {
+        return serviceUnavailable(e.getRetryAfter(), e.getMessage());
+    }
+
+    /**
+     * write-behind 의 ack 처럼 future 로 받은 실패. 원인으로 응답을 정한다.
+     */
+    @ExceptionHandler(CompletionException.class)
+    public ResponseEntity<ProblemDetail> handleCompletion(CompletionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof WriteBehindFullException full) {
+            return handleWriteBehindFull(full);
+        }
+        if (cause instanceof DataIntegrityViolationException violation) {
+            return handleDataIntegrityViolation(violation);
+        }
+        if (cause instanceof TimeoutException) {
+            log.warn("write-behind ack timed out, the insert may still be committed");
+            return gatewayTimeout("timed out waiting for the write to be acknowledged");
+        }
+        log.error("asynchronous request failed", cause);
+        return ResponseEntity.internalServerError()
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.INTERNAL_SERVER_ERROR, "write failed"));
+    }
+
+    /**
+     * 없는 teamId 처럼 제약 조건에 걸리는 쓰기. 요청이 잘못된 것이므로 500 이 아닌 400 으로 준다.
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ProblemDetail> handleDataIntegrityViolation(DataIntegrityViolationException e) {
+        log.info("write rejected by a constraint: {}", e.getMostSpecificCause().getMessage());
+        return ResponseEntity.badRequest()
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, "request violates a data constraint (e.g. unknown teamId)"));
+    }
+
+    @ExceptionHandler({UnsupportedSortException.class, UnsupportedFieldException.class, InvalidCursorException.class})
+    public ResponseEntity<ProblemDetail> handleBadSearchRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest()
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage()));
+    }
+
+    /**
+     * shard 를 쓸 때 지원하지 않는 조회. 0번 shard 만 보고 틀린 결과를 주는 대신 거절한다.
+     */
+    @ExceptionHandler(ShardNotSelectedException.class)
+    public ResponseEntity<ProblemDetail> handleShardNotSelected(ShardNotSelectedException e) {
+        return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED)
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.NOT_IMPLEMENTED, e.getMessage()));
+    }
+
+    @ExceptionHandler(DeadlineExceededException.class)
+    public ResponseEntity<ProblemDetail> handleDeadlineExceeded(DeadlineExceededException e) {
+        deadlineMetrics.beforeQuery();
+        return gatewayTimeout(e.getMessage());
+    }
+
+    /**
+     * JDBC query timeout. Spring 예외 변환을 거친 경우와 JPA 예외 그대로인 경우를 모두 받는다.
+     */
+    @ExceptionHandler({QueryTimeoutException.class, jakarta.persistence.QueryTimeoutException.class})
+    public ResponseEntity<ProblemDetail> handleQueryTimeout(RuntimeException e) {
+        deadlineMetrics.database();
+        log.warn("query cancelled by request deadline: {}", e.getMessage());
+        return gatewayTimeout("request deadline exceeded while the query was running");
+    }
+
+    private ResponseEntity<ProblemDetail> serviceUnavailable(Duration retryAfter, String detail) {
+        long retryAfterSeconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, detail));
+    }
+
+    private ResponseEntity<ProblemDetail> gatewayTimeout(String detail) {
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.GATEWAY_TIMEOUT, detail));
+    }
+}
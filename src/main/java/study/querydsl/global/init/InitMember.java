@@ -1,43 +1,98 @@
 package study.querydsl.global.init;
 
-import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.domain.member.entity.Member;
 import study.querydsl.domain.team.entity.Team;
+import study.querydsl.global.shard.ShardOperations;
 
+/**
+ * 샘플 데이터는 기동이 끝난 뒤(ApplicationReadyEvent) 백그라운드에서 넣는다.
+ * 넣는 동안은 readiness 를 REFUSING_TRAFFIC 으로 두어서 /actuator/health/readiness 가 준비 안 됨으로 보이게 한다.
+ */
+@Slf4j
 @Profile("local")
 @Component
 @RequiredArgsConstructor
 public class InitMember {
 
     private final InitMemberService initMemberService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    @PostConstruct
+    private boolean seeding;
+
+    @EventListener(ApplicationReadyEvent.class)
     public void init() {
-        initMemberService.init();
+        synchronized (this) {
+            seeding = true;
+        }
+
+        Thread thread = new Thread(this::seed, "init-member");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Spring Boot 는 ApplicationReadyEvent 직후에 ACCEPTING_TRAFFIC 을 내보내므로, 아직 넣는 중이면 다시 막는다.
+     */
+    @EventListener
+    public void onReadiness(AvailabilityChangeEvent<ReadinessState> event) {
+        synchronized (this) {
+            if (seeding && event.getState() == ReadinessState.ACCEPTING_TRAFFIC) {
+                AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+            }
+        }
     }
 
+    private void seed() {
+        long start = System.currentTimeMillis();
+        try {
+            initMemberService.init();
+            log.info("seeded sample members in {} ms", System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.error("failed to seed sample members", e);
+        } finally {
+            synchronized (this) {
+                seeding = false;
+                AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.ACCEPTING_TRAFFIC);
+            }
+        }
+    }
+
+    /**
+     * shard 를 쓰면 team 은 모든 shard 에 같은 순서로 넣어서 id 를 맞추고, member 는 팀의 shard 에만 넣는다.
+     */
     @Component
+    @RequiredArgsConstructor
     static class InitMemberService {
         @PersistenceContext
         private EntityManager em;
 
-        @Transactional
+        private final ShardOperations shardOperations;
+
         public void init() {
-            Team teamA = new Team("teamA");
-            Team teamB = new Team("teamB");
-            em.persist(teamA);
-            em.persist(teamB);
-
-            for (int i = 0; i < 100; i++){
-                Team selectedTeam = i % 2 == 0 ? teamA : teamB;
-                em.persist(new Member("member" + 1, i, selectedTeam));
-            }
+            shardOperations.runOnEachShard(() -> {
+                Team teamA = new Team("teamA");
+                Team teamB = new Team("teamB");
+                em.persist(teamA);
+                em.persist(teamB);
+
+                for (int i = 0; i < 100; i++){
+                    Team selectedTeam = i % 2 == 0 ? teamA : teamB;
+                    if (shardOperations.shardOf(selectedTeam.getId()) == shardOperations.currentShard()) {
+                        em.persist(new Member("member" + 1, i, selectedTeam));
+                    }
+                }
+            });
         }
     }
 }
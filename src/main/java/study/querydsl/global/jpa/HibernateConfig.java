@@ -0,0 +1,23 @@
+package study.querydsl.global.jpa;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class HibernateConfig {
+
+    /**
+     * - generate_statistics : Statistics 를 켜야 HibernateMetrics(hibernate-micrometer)가 값을 내보낸다.
+     * - in_clause_parameter_padding : IN (?, ?, ?) 바인딩 개수를 2의 거듭제곱으로 맞춘다.
+     *   id 목록 길이마다 SQL 이 달라져서 statement 캐시가 쪼개지는 것을 막는다.
+     */
+    @Bean
+    HibernatePropertiesCustomizer hibernateStatisticsCustomizer() {
+        return properties -> {
+            properties.putIfAbsent(AvailableSettings.GENERATE_STATISTICS, "true");
+            properties.putIfAbsent(AvailableSettings.IN_CLAUSE_PARAMETER_PADDING, "true");
+        };
+    }
+}
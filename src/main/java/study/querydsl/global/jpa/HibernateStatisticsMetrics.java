@@ -0,0 +1,39 @@
+package study.querydsl.global.jpa;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+/**
+ * HibernateMetrics 가 내보내지 않는 값(쿼리 플랜 캐시 적중률, prepared statement 수)을 추가로 내보낸다.
+ */
+@Component
+@RequiredArgsConstructor
+public class HibernateStatisticsMetrics implements MeterBinder {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Gauge.builder("hibernate.query.plan.cache.hit.ratio", statistics, HibernateStatisticsMetrics::planCacheHitRatio)
+                .description("Query plan cache hit ratio since startup")
+                .register(registry);
+        FunctionCounter.builder("hibernate.statements.prepared", statistics, Statistics::getPrepareStatementCount)
+                .description("JDBC statements prepared")
+                .register(registry);
+    }
+
+    private static double planCacheHitRatio(Statistics statistics) {
+        long hits = statistics.getQueryPlanCacheHitCount();
+        long total = hits + statistics.getQueryPlanCacheMissCount();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,46 @@
+package study.querydsl.global.jpa;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.FlushMode;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.function.Function;
+
+/**
+ * 조회만 하는 엔티티 쿼리용 설정.
+ * - readOnly : 로딩한 엔티티의 스냅샷(dirty checking 용 복사본)을 만들지 않는다. 값을 바꿔도 update 가 나가지 않는다.
+ * - FlushMode.MANUAL : 쿼리 전에 auto flush 를 하지 않는다. 같은 트랜잭션에서 아직 flush 안 한 변경은 이 쿼리 결과에 반영되지 않는다.
+ * 이미 영속성 컨텍스트에 있던 엔티티는 그대로 돌려주므로 읽기 전용으로 바뀌지 않는다.
+ */
+public final class ReadOnlyQueries {
+
+    private ReadOnlyQueries() {
+    }
+
+    public static <T> TypedQuery<T> readOnly(TypedQuery<T> query) {
+        return query
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setHint(HibernateHints.HINT_FLUSH_MODE, FlushMode.MANUAL);
+    }
+
+    public static <T> JPAQuery<T> readOnly(JPAQuery<T> query) {
+        query.setHint(HibernateHints.HINT_READ_ONLY, true);
+        query.setHint(HibernateHints.HINT_FLUSH_MODE, FlushMode.MANUAL);
+        return query;
+    }
+
+    /**
+     * 영속성 컨텍스트가 아예 없는 StatelessSession 으로 조회한다. 대량 조회에서 1차 캐시/스냅샷 비용이 모두 빠진다.
+     * 별도 커넥션을 쓰므로 현재 트랜잭션의 미반영 변경은 보이지 않고, 돌려받은 엔티티의 지연 로딩은 동작하지 않는다.
+     */
+    public static <R> R stateless(EntityManager em, Function<StatelessSession, R> work) {
+        SessionFactory sessionFactory = em.getEntityManagerFactory().unwrap(SessionFactory.class);
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            return work.apply(session);
+        }
+    }
+}
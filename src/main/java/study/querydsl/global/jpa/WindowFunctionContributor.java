@@ -0,0 +1,33 @@
+package study.querydsl.global.jpa;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.query.sqm.function.SqmFunctionRegistry;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * 윈도우 함수를 HQL 함수로 등록해서 QueryDSL 에서 Expressions.numberTemplate 으로 쓸 수 있게 한다.
+ * 예) Expressions.numberTemplate(Long.class, "rank_over_desc({0}, {1})", member.team.id, member.age)
+ * - ?1 : partition by, ?2 : order by (내림차순)
+ * - select 절에서만 쓸 수 있다. 결과로 where 를 거르려면 파생 테이블이 필요하다. (TeamMemberRankRepository)
+ * - row_number 는 두지 않는다. order by 가 한 컬럼뿐이라 동점의 순서가 정해지지 않는다. (top N 은 querydsl-sql 의 rowNumber 로 한다)
+ * META-INF/services/org.hibernate.boot.model.FunctionContributor 로 등록한다.
+ */
+public class WindowFunctionContributor implements FunctionContributor {
+
+    public static final String RANK_OVER_DESC = "rank_over_desc";
+    public static final String AVG_OVER = "avg_over";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        SqmFunctionRegistry registry = functionContributions.getFunctionRegistry();
+        BasicTypeRegistry types = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+
+        registry.registerPattern(RANK_OVER_DESC,
+                "rank() over (partition by ?1 order by ?2 desc)", types.resolve(StandardBasicTypes.LONG));
+        // 정수 평균이 잘리지 않도록 1.0 을 곱한다.
+        registry.registerPattern(AVG_OVER,
+                "avg(?1 * 1.0) over (partition by ?2)", types.resolve(StandardBasicTypes.DOUBLE));
+    }
+}
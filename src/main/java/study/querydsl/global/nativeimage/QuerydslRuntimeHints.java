@@ -0,0 +1,77 @@
+package study.querydsl.global.nativeimage;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import study.querydsl.domain.member.dto.MemberDto;
+import study.querydsl.domain.member.dto.MemberSearchCondition;
+import study.querydsl.domain.member.dto.MemberTeamDto;
+import study.querydsl.domain.member.dto.QMemberDto;
+import study.querydsl.domain.member.dto.QMemberTeamDto;
+import study.querydsl.domain.member.dto.UserDto;
+import study.querydsl.domain.member.entity.QMember;
+import study.querydsl.domain.team.dto.QTeamMemberRankDto;
+import study.querydsl.domain.team.dto.QTeamStatsDto;
+import study.querydsl.domain.team.dto.TeamMemberRankDto;
+import study.querydsl.domain.team.dto.TeamStatsDto;
+import study.querydsl.domain.team.entity.QTeam;
+import study.querydsl.domain.team.entity.QTeamStats;
+import study.querydsl.global.jpa.WindowFunctionContributor;
+import study.querydsl.global.p6spy.P6SpySqlFormatter;
+import study.querydsl.sql.SMember;
+import study.querydsl.sql.STeam;
+
+import java.util.List;
+
+/**
+ * native-image 는 리플렉션 대상을 빌드 때 알아야 한다. Spring/Hibernate 가 알아서 등록하지 못하는 것만 여기 적는다.
+ * - Q/S 타입 : 생성된 메타모델. 필드로 경로를 찾는다.
+ * - DTO : QueryDSL 이 Projections.bean/fields/constructor 와 @QueryProjection 생성자를 리플렉션으로 호출한다.
+ * - p6spy : 로그 포맷(P6SpySqlFormatter)과 모듈을 클래스 이름으로 만든다.
+ * - WindowFunctionContributor : Hibernate 가 ServiceLoader 로 찾는다.
+ */
+public class QuerydslRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final List<Class<?>> QUERY_TYPES = List.of(
+            QMember.class, QTeam.class, QTeamStats.class,
+            QMemberTeamDto.class, QMemberDto.class, QTeamStatsDto.class, QTeamMemberRankDto.class,
+            SMember.class, STeam.class
+    );
+
+    private static final List<Class<?>> DTO_TYPES = List.of(
+            MemberTeamDto.class, MemberDto.class, UserDto.class, TeamStatsDto.class, TeamMemberRankDto.class,
+            MemberSearchCondition.class
+    );
+
+    private static final List<String> P6SPY_TYPES = List.of(
+            "com.p6spy.engine.spy.P6SpyFactory",
+            "com.p6spy.engine.logging.P6LogFactory",
+            "com.p6spy.engine.spy.appender.Slf4JLogger"
+    );
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (Class<?> type : QUERY_TYPES) {
+            hints.reflection().registerType(type,
+                    MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        }
+
+        for (Class<?> type : DTO_TYPES) {
+            hints.reflection().registerType(type,
+                    MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+
+        hints.reflection().registerType(P6SpySqlFormatter.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        for (String type : P6SPY_TYPES) {
+            hints.reflection().registerType(TypeReference.of(type), MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        }
+        hints.resources().registerPattern("spy.properties");
+
+        hints.reflection().registerType(WindowFunctionContributor.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.resources().registerPattern("META-INF/services/org.hibernate.boot.model.FunctionContributor");
+    }
+}
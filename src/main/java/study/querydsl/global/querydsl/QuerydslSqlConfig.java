@@ -0,0 +1,46 @@
+package study.querydsl.global.querydsl;
+
+import com.querydsl.sql.H2Templates;
+import com.querydsl.sql.MySQLTemplates;
+import com.querydsl.sql.SQLQueryFactory;
+import com.querydsl.sql.SQLTemplates;
+import com.querydsl.sql.spring.SpringConnectionProvider;
+import com.querydsl.sql.spring.SpringExceptionTranslator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+/**
+ * querydsl-sql 설정. 검색(member.search.engine=sql)과 JPQL 로 못 쓰는 파생 테이블 쿼리(TeamMemberRankRepository)가 쓴다.
+ * SpringConnectionProvider 는 트랜잭션에 묶인 커넥션만 꺼내 주므로, JPA 트랜잭션 안에서 같은 커넥션을 쓴다.
+ */
+@Configuration
+public class QuerydslSqlConfig {
+
+    @Bean
+    public com.querydsl.sql.Configuration querydslSqlConfiguration(DataSource dataSource) throws MetaDataAccessException {
+        com.querydsl.sql.Configuration configuration = new com.querydsl.sql.Configuration(templates(dataSource));
+        configuration.setExceptionTranslator(new SpringExceptionTranslator());
+        return configuration;
+    }
+
+    @Bean
+    public SQLQueryFactory sqlQueryFactory(com.querydsl.sql.Configuration querydslSqlConfiguration, DataSource dataSource) {
+        return new SQLQueryFactory(querydslSqlConfiguration, new SpringConnectionProvider(dataSource));
+    }
+
+    /**
+     * 운영은 MariaDB, 테스트/perf 는 H2 라서 접속한 DB 를 보고 방언을 고른다.
+     */
+    private static SQLTemplates templates(DataSource dataSource) throws MetaDataAccessException {
+        String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        if (product.toLowerCase().contains("h2")) {
+            return H2Templates.builder().build();
+        }
+        return MySQLTemplates.builder().build();
+    }
+}
@@ -0,0 +1,35 @@
+package study.querydsl.global.servertiming;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+/**
+ * 응답의 X-Sql-Trace-Id 로 그 요청의 SQL 타임라인(SQL 원문 포함)을 찾아본다.
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "server-timing", name = {"enabled", "trace-enabled"}, havingValue = "true")
+public class ServerTimingController {
+
+    private final ServerTimingTraces traces;
+
+    @GetMapping("/debug/sql-timeline")
+    public List<ServerTimingTrace> recent() {
+        return traces.recent();
+    }
+
+    @GetMapping("/debug/sql-timeline/{id}")
+    public ServerTimingTrace trace(@PathVariable long id) {
+        return traces.recent().stream()
+                .filter(trace -> trace.id() == id)
+                .findFirst()
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    }
+}
@@ -0,0 +1,70 @@
+package study.querydsl.global.servertiming;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+
+/**
+ * 요청마다 SqlTimeline 을 열고, 끝나면 Server-Timing header 로 내보낸다. (server-timing.enabled=true)
+ * header 는 본문보다 먼저 나가야 하므로 본문을 버퍼에 모았다가 header 를 붙인 뒤 내보낸다.
+ * 그래서 켜져 있는 동안은 응답 본문만큼 메모리를 더 쓴다.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@ConditionalOnProperty(prefix = "server-timing", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ServerTimingProperties.class)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    public static final String SERVER_TIMING = "Server-Timing";
+    public static final String TRACE_ID = "X-Sql-Trace-Id";
+
+    private final ServerTimingProperties properties;
+    private final ObjectProvider<ServerTimingTraces> traces;
+
+    public ServerTimingFilter(ServerTimingProperties properties, ObjectProvider<ServerTimingTraces> traces) {
+        this.properties = properties;
+        this.traces = traces;
+    }
+
+    /**
+     * 타임라인 조회 자체는 기록하지 않는다.
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/debug/sql-timeline");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlTimeline timeline = SqlTimeline.start(properties.getMaxEntries());
+        ContentCachingResponseWrapper buffered = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, buffered);
+        } finally {
+            long end = System.nanoTime();
+            SqlTimeline.clear();
+
+            if (!response.isCommitted()) {
+                response.setHeader(SERVER_TIMING, timeline.toHeader(end));
+                ServerTimingTraces store = traces.getIfAvailable();
+                if (store != null) {
+                    long id = store.add(request.getMethod(), request.getRequestURI(), buffered.getStatus(), timeline, end);
+                    response.setHeader(TRACE_ID, String.valueOf(id));
+                }
+            }
+            buffered.copyBodyToResponse();
+        }
+    }
+}
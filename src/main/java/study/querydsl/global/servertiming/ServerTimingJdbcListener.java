@@ -0,0 +1,87 @@
+package study.querydsl.global.servertiming;
+
+import com.p6spy.engine.common.ConnectionInformation;
+import com.p6spy.engine.common.PreparedStatementInformation;
+import com.p6spy.engine.common.ResultSetInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+/**
+ * p6spy 가 JDBC 호출마다 부르는 리스너. (p6spy-spring-boot-starter 가 JdbcEventListener 빈을 등록한다)
+ * 요청 밖(타임라인이 없는) 호출은 ThreadLocal 조회 한 번으로 끝난다.
+ */
+@Component
+@ConditionalOnProperty(prefix = "server-timing", name = "enabled", havingValue = "true")
+public class ServerTimingJdbcListener extends SimpleJdbcEventListener {
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        SqlTimeline timeline = SqlTimeline.current();
+        if (timeline != null) {
+            timeline.statement("statement", statementInformation.getSql(), timeElapsedNanos);
+        }
+    }
+
+    @Override
+    public void onAfterExecuteUpdate(PreparedStatementInformation statementInformation, long timeElapsedNanos, int rowCount, SQLException e) {
+        super.onAfterExecuteUpdate(statementInformation, timeElapsedNanos, rowCount, e);
+        rows(rowCount);
+    }
+
+    @Override
+    public void onAfterExecuteUpdate(StatementInformation statementInformation, long timeElapsedNanos, String sql, int rowCount, SQLException e) {
+        super.onAfterExecuteUpdate(statementInformation, timeElapsedNanos, sql, rowCount, e);
+        rows(rowCount);
+    }
+
+    @Override
+    public void onAfterExecuteBatch(StatementInformation statementInformation, long timeElapsedNanos, int[] updateCounts, SQLException e) {
+        SqlTimeline timeline = SqlTimeline.current();
+        if (timeline == null) {
+            return;
+        }
+        timeline.statement("batch", statementInformation.getSql(), timeElapsedNanos);
+        if (updateCounts != null) {
+            int rows = 0;
+            for (int count : updateCounts) {
+                rows += Math.max(0, count);
+            }
+            timeline.rows(rows);
+        }
+    }
+
+    @Override
+    public void onAfterResultSetNext(ResultSetInformation resultSetInformation, long timeElapsedNanos, boolean hasNext, SQLException e) {
+        SqlTimeline timeline = SqlTimeline.current();
+        if (timeline != null) {
+            timeline.fetched(timeElapsedNanos, hasNext);
+        }
+    }
+
+    @Override
+    public void onAfterCommit(ConnectionInformation connectionInformation, long timeElapsedNanos, SQLException e) {
+        SqlTimeline timeline = SqlTimeline.current();
+        if (timeline != null) {
+            timeline.statement("commit", null, timeElapsedNanos);
+        }
+    }
+
+    @Override
+    public void onAfterRollback(ConnectionInformation connectionInformation, long timeElapsedNanos, SQLException e) {
+        SqlTimeline timeline = SqlTimeline.current();
+        if (timeline != null) {
+            timeline.statement("rollback", null, timeElapsedNanos);
+        }
+    }
+
+    private static void rows(int rowCount) {
+        SqlTimeline timeline = SqlTimeline.current();
+        if (timeline != null) {
+            timeline.rows(rowCount);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package study.querydsl.global.servertiming;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "server-timing")
+public class ServerTimingProperties {
+
+    /** 꺼져 있으면 필터/리스너 빈 자체가 없으므로 비용이 없다. */
+    private boolean enabled = false;
+
+    /** header 에 statement 별로 적을 최대 개수. 넘는 것은 db 합계에만 들어간다. */
+    private int maxEntries = 20;
+
+    /** 최근 요청의 SQL 타임라인을 /debug/sql-timeline 으로 보여 준다. (SQL 원문 포함, 운영에서는 끈다) */
+    private boolean traceEnabled = false;
+
+    /** 보관할 최근 요청 수 */
+    private int traceSize = 100;
+}
@@ -0,0 +1,24 @@
+package study.querydsl.global.servertiming;
+
+import java.util.List;
+
+/**
+ * /debug/sql-timeline 응답. 시간은 ms, offsetMs 는 요청 시작부터 statement 실행 시작까지.
+ */
+public record ServerTimingTrace(long id, String method, String uri, int status, double totalMs, List<Entry> statements) {
+
+    public record Entry(String category, String kind, String sql, double offsetMs, double executeMs, double fetchMs, int rows) {
+    }
+
+    static ServerTimingTrace of(long id, String method, String uri, int status, SqlTimeline timeline, long endNanos) {
+        List<Entry> statements = timeline.getStatements().stream()
+                .map(s -> new Entry(s.getCategory(), s.getKind(), s.getSql(),
+                        ms(s.getOffsetNanos()), ms(s.getExecuteNanos()), ms(s.getFetchNanos()), s.getRows()))
+                .toList();
+        return new ServerTimingTrace(id, method, uri, status, ms(timeline.totalNanos(endNanos)), statements);
+    }
+
+    private static double ms(long nanos) {
+        return Math.round(nanos / 100_000.0) / 10.0;
+    }
+}
@@ -0,0 +1,47 @@
+package study.querydsl.global.servertiming;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 최근 요청의 SQL 타임라인을 traceSize 개까지 보관한다. (server-timing.trace-enabled=true)
+ */
+@Component
+@ConditionalOnProperty(prefix = "server-timing", name = {"enabled", "trace-enabled"}, havingValue = "true")
+public class ServerTimingTraces {
+
+    private final int capacity;
+    private final Deque<ServerTimingTrace> traces = new ArrayDeque<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public ServerTimingTraces(ServerTimingProperties properties) {
+        this.capacity = properties.getTraceSize();
+    }
+
+    public long add(String method, String uri, int status, SqlTimeline timeline, long endNanos) {
+        long id = sequence.incrementAndGet();
+        ServerTimingTrace trace = ServerTimingTrace.of(id, method, uri, status, timeline, endNanos);
+        synchronized (traces) {
+            traces.addFirst(trace);
+            while (traces.size() > capacity) {
+                traces.removeLast();
+            }
+        }
+        return id;
+    }
+
+    /**
+     * 최신 순
+     */
+    public List<ServerTimingTrace> recent() {
+        synchronized (traces) {
+            return new ArrayList<>(traces);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package study.querydsl.global.servertiming;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 요청 하나에서 실행된 SQL 의 시간/row 수. ServerTimingFilter 가 요청 시작에 만들고 끝나면 지운다.
+ * 요청 스레드에서만 쌓이므로 다른 스레드(shard executor 등)에서 돈 SQL 은 들어가지 않는다.
+ */
+public class SqlTimeline {
+
+    private static final ThreadLocal<SqlTimeline> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private final int maxEntries;
+    private final List<Statement> statements = new ArrayList<>();
+    private Statement last;
+    private int statementCount;
+    private long dbNanos;
+    private long renderStartNanos;
+
+    private SqlTimeline(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public static SqlTimeline start(int maxEntries) {
+        SqlTimeline timeline = new SqlTimeline(maxEntries);
+        CURRENT.set(timeline);
+        return timeline;
+    }
+
+    public static SqlTimeline current() {
+        return CURRENT.get();
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    void statement(String category, String sql, long elapsedNanos) {
+        statementCount++;
+        dbNanos += elapsedNanos;
+        if (statements.size() >= maxEntries) {
+            last = null;
+            return;
+        }
+        last = new Statement(category, kindOf(sql), sql, System.nanoTime() - elapsedNanos - startNanos, elapsedNanos);
+        statements.add(last);
+    }
+
+    void rows(int rows) {
+        if (last != null && rows > 0) {
+            last.rows += rows;
+        }
+    }
+
+    /**
+     * ResultSet.next() 도 DB 에서 row 를 받아오는 시간이라 마지막 statement 에 더한다.
+     */
+    void fetched(long elapsedNanos, boolean hasNext) {
+        dbNanos += elapsedNanos;
+        if (last != null) {
+            last.fetchNanos += elapsedNanos;
+            if (hasNext) {
+                last.rows++;
+            }
+        }
+    }
+
+    /**
+     * 컨트롤러가 값을 돌려주고 응답 본문을 쓰기 시작한 시점. (ServerTimingBodyAdvice)
+     */
+    void markRender() {
+        if (renderStartNanos == 0) {
+            renderStartNanos = System.nanoTime();
+        }
+    }
+
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    public List<Statement> getStatements() {
+        return Collections.unmodifiableList(statements);
+    }
+
+    public long totalNanos(long endNanos) {
+        return endNanos - startNanos;
+    }
+
+    /**
+     * total / db / app / render 와 statement 별 항목. app 은 SQL 과 직렬화를 뺀 나머지다.
+     * 예) total;dur=31.2, db;dur=12.0;desc="2 statements", app;dur=14.9, render;dur=4.3, sql-1;dur=9.1;desc="select 20 rows", ...
+     */
+    public String toHeader(long endNanos) {
+        long total = totalNanos(endNanos);
+        long render = renderStartNanos == 0 ? 0 : endNanos - renderStartNanos;
+        long app = Math.max(0, total - dbNanos - render);
+
+        StringBuilder header = new StringBuilder();
+        header.append("total;dur=").append(millis(total));
+        header.append(", db;dur=").append(millis(dbNanos)).append(";desc=\"").append(statementCount).append(" statements\"");
+        header.append(", app;dur=").append(millis(app));
+        if (renderStartNanos != 0) {
+            header.append(", render;dur=").append(millis(render));
+        }
+        for (int i = 0; i < statements.size(); i++) {
+            Statement statement = statements.get(i);
+            header.append(", sql-").append(i + 1)
+                    .append(";dur=").append(millis(statement.elapsedNanos()))
+                    .append(";desc=\"").append(statement.describe()).append('"');
+        }
+        return header.toString();
+    }
+
+    static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0);
+    }
+
+    /**
+     * count 쿼리를 content 쿼리와 구분해서 보이도록 select count 는 따로 센다.
+     */
+    private static String kindOf(String sql) {
+        if (sql == null) {
+            return "other";
+        }
+        String head = sql.stripLeading().toLowerCase(Locale.ROOT);
+        if (head.startsWith("select count(")) {
+            return "count";
+        }
+        for (String kind : new String[]{"select", "insert", "update", "delete"}) {
+            if (head.startsWith(kind)) {
+                return kind;
+            }
+        }
+        return "other";
+    }
+
+    @Getter
+    public static class Statement {
+
+        private final String category;
+        private final String kind;
+        private final String sql;
+        private final long offsetNanos;
+        private final long executeNanos;
+        private long fetchNanos;
+        private int rows;
+
+        private Statement(String category, String kind, String sql, long offsetNanos, long executeNanos) {
+            this.category = category;
+            this.kind = kind;
+            this.sql = sql;
+            this.offsetNanos = offsetNanos;
+            this.executeNanos = executeNanos;
+        }
+
+        public long elapsedNanos() {
+            return executeNanos + fetchNanos;
+        }
+
+        String describe() {
+            return switch (category) {
+                case "statement" -> kind + " " + rows + " rows";
+                case "batch" -> "batch " + kind + " " + rows + " rows";
+                default -> category;
+            };
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package study.querydsl.global.shard;
+
+import java.util.function.Supplier;
+
+/**
+ * 현재 스레드가 어느 shard 를 쓸지 정한다.
+ * 커넥션은 트랜잭션이 시작될 때 잡히므로, 트랜잭션 밖에서 shard 를 정한 뒤 트랜잭션을 시작해야 한다.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    public static <T> T callOn(int shard, Supplier<T> action) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    public static void runOn(int shard, Runnable action) {
+        callOn(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+}
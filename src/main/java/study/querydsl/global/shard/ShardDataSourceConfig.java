@@ -0,0 +1,78 @@
+package study.querydsl.global.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+@ConditionalOnProperty(name = "shard.enabled", havingValue = "true")
+@EnableConfigurationProperties(ShardProperties.class)
+public class ShardDataSourceConfig {
+
+    private ShardRoutingDataSource routing;
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardProperties properties) {
+        List<ShardProperties.Shard> shards = properties.getShards();
+        if (shards.isEmpty()) {
+            throw new IllegalStateException("shard.enabled=true but no shard.shards configured");
+        }
+
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            ShardProperties.Shard shard = shards.get(i);
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(shard.getUrl())
+                    .username(shard.getUsername())
+                    .password(shard.getPassword())
+                    .build();
+            dataSource.setPoolName("shard-" + i);
+            targets.put(i, dataSource);
+        }
+
+        routing = new ShardRoutingDataSource();
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(targets.get(0));
+        return routing;
+    }
+
+    /**
+     * 스키마 생성까지 끝났으면 이후로는 shard 를 정하지 않은 접근을 막는다.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void requireShardSelection() {
+        if (routing != null) {
+            routing.requireShardSelection();
+        }
+    }
+
+    /**
+     * scatter-gather 전용 스레드. 요청 스레드에는 open-in-view 로 묶인 EntityManager 가 있을 수 있어서
+     * shard 작업은 항상 이 스레드에서 새 트랜잭션으로 돌린다.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService shardExecutor(ShardProperties properties) {
+        AtomicInteger sequence = new AtomicInteger();
+        return Executors.newFixedThreadPool(properties.getShards().size() * properties.getThreadsPerShard(), runnable -> {
+            Thread thread = new Thread(runnable, "shard-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,15 @@
+package study.querydsl.global.shard;
+
+/**
+ * shard 를 쓰는데 어느 shard 로 갈지 정하지 않고 DB 에 접근했다. 0번 shard 로 조용히 보내지 않고 실패시킨다.
+ */
+public class ShardNotSelectedException extends IllegalStateException {
+
+    public ShardNotSelectedException() {
+        super("no shard selected; route by team_id (ShardOperations) or use a scatter-gather path");
+    }
+
+    public ShardNotSelectedException(String operation) {
+        super(operation + " is not supported when shard.enabled=true");
+    }
+}
@@ -0,0 +1,113 @@
+package study.querydsl.global.shard;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 쓰기와 배경 작업을 알맞은 shard 에서 돌린다. shard 를 안 쓰면 트랜잭션 하나로 그대로 돌린다. (이미 있으면 참여)
+ *
+ * - member 는 team_id 로 나뉘므로 쓰기는 callOnTeamShard 로 그 팀의 shard 에서 한다.
+ * - member_id 만 아는 조회나 전체 집계는 callOnEachShard 로 shard 를 차례로 돈다.
+ * - 커넥션은 트랜잭션이 시작될 때 잡히므로, shard 를 아직 정하지 않았으면 shard 마다 새 트랜잭션을 연다.
+ *   이미 정해져 있으면(그 shard 의 트랜잭션 안이면) 그 shard 에서만 돈다.
+ */
+@Component
+public class ShardOperations {
+
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTemplate;
+
+    public ShardOperations(ObjectProvider<ShardRouter> shardRouter, PlatformTransactionManager transactionManager) {
+        this.shardRouter = shardRouter.getIfAvailable();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+    }
+
+    public boolean enabled() {
+        return shardRouter != null;
+    }
+
+    /**
+     * shard 를 안 쓰면 항상 0.
+     */
+    public int shardOf(Long teamId) {
+        return shardRouter == null ? 0 : shardRouter.shardOf(teamId);
+    }
+
+    /**
+     * 지금 돌고 있는 shard. shard 를 안 쓰면 0.
+     */
+    public int currentShard() {
+        Integer current = ShardContext.current();
+        return current == null ? 0 : current;
+    }
+
+    public <T> T callOnTeamShard(Long teamId, Supplier<T> action) {
+        if (shardRouter == null) {
+            return transactionTemplate.execute(status -> action.get());
+        }
+
+        int shard = shardRouter.shardOf(teamId);
+        Integer current = ShardContext.current();
+        if (current != null && current != shard) {
+            throw new IllegalStateException("team " + teamId + " belongs to shard " + shard + " but shard " + current + " is selected");
+        }
+        return ShardContext.callOn(shard, () -> transactionTemplate.execute(status -> action.get()));
+    }
+
+    public void runOnTeamShard(Long teamId, Runnable action) {
+        callOnTeamShard(teamId, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * shard 마다 트랜잭션 하나씩, 0번부터 차례로 돌린 결과. shard 를 안 쓰거나 이미 정해져 있으면 결과는 하나다.
+     */
+    public <T> List<T> callOnEachShard(Supplier<T> action) {
+        return onEachShard(transactionTemplate, action);
+    }
+
+    public void runOnEachShard(Runnable action) {
+        callOnEachShard(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public <T> List<T> readOnEachShard(Supplier<T> query) {
+        return onEachShard(readOnlyTemplate, query);
+    }
+
+    /**
+     * shard 를 나눠서는 맞게 돌릴 수 없는 작업을 막는다.
+     */
+    public void rejectIfSharded(String operation) {
+        if (shardRouter != null) {
+            throw new ShardNotSelectedException(operation);
+        }
+    }
+
+    private <T> List<T> onEachShard(TransactionTemplate template, Supplier<T> action) {
+        if (shardRouter == null || ShardContext.current() != null) {
+            List<T> results = new ArrayList<>(1);
+            results.add(template.execute(status -> action.get()));
+            return results;
+        }
+
+        List<T> results = new ArrayList<>(shardRouter.shardCount());
+        for (int shard : shardRouter.allShards()) {
+            results.add(ShardContext.callOn(shard, () -> template.execute(status -> action.get())));
+        }
+        return results;
+    }
+}
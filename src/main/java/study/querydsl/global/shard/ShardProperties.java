@@ -0,0 +1,35 @@
+package study.querydsl.global.shard;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * shard.enabled=true 일 때만 쓴다.
+ *
+ * - member 는 team_id 기준으로 shard 에 나뉘고, team 은 모든 shard 에 같은 id 로 복제되어 있다고 가정한다.
+ * - member_id 가 shard 끼리 겹치지 않도록 각 DB 의 auto_increment_increment / offset 을 shard 수에 맞춰 둔다.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shard")
+public class ShardProperties {
+
+    private boolean enabled;
+    private List<Shard> shards = new ArrayList<>();
+    private int threadsPerShard = 4;
+
+    /** 첫 번째 shard 의 스키마를 나머지로 복사한다. (H2 로컬 테스트 전용) */
+    private boolean copySchemaFromFirst;
+
+    @Getter
+    @Setter
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
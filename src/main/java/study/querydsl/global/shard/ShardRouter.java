@@ -0,0 +1,31 @@
+package study.querydsl.global.shard;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shard.enabled", havingValue = "true")
+public class ShardRouter {
+
+    private final ShardProperties properties;
+
+    public int shardCount() {
+        return properties.getShards().size();
+    }
+
+    /**
+     * 팀이 없는 멤버는 0번 shard 에 둔다.
+     */
+    public int shardOf(Long teamId) {
+        return teamId == null ? 0 : (int) Math.floorMod(teamId, (long) shardCount());
+    }
+
+    public List<Integer> allShards() {
+        return IntStream.range(0, shardCount()).boxed().toList();
+    }
+}
@@ -0,0 +1,40 @@
+package study.querydsl.global.shard;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+
+/**
+ * ShardContext 가 가리키는 shard 의 커넥션을 준다.
+ * 기동 중(Hibernate 의 dialect 확인, ddl-auto)에는 shard 를 고를 수 없으므로 0번을 쓰고,
+ * 컨텍스트가 뜬 뒤(requireShardSelection)에는 shard 를 정하지 않은 접근을 ShardNotSelectedException 으로 막는다.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private volatile boolean requireShardSelection;
+
+    public void requireShardSelection() {
+        this.requireShardSelection = true;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Integer shard = ShardContext.current();
+        if (shard != null) {
+            return shard;
+        }
+        if (requireShardSelection) {
+            throw new ShardNotSelectedException();
+        }
+        return 0;
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource dataSource : getResolvedDataSources().values()) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package study.querydsl.global.shard;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * ddl-auto 는 기본 shard(0번)에만 스키마를 만든다.
+ * 로컬에서 H2 여러 개로 돌릴 때는 0번의 DDL(SCRIPT NO DATA)을 나머지 shard 에 그대로 실행한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = {"shard.enabled", "shard.copy-schema-from-first"}, havingValue = "true")
+public class ShardSchemaCopier {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void copy() {
+        List<String> ddl = ShardContext.callOn(0, () -> jdbcTemplate.queryForList("script no data", String.class)).stream()
+                .filter(statement -> statement.startsWith("CREATE") || statement.startsWith("ALTER"))
+                .filter(statement -> !statement.startsWith("CREATE USER"))
+                .toList();
+
+        for (int shard = 1; shard < shardRouter.shardCount(); shard++) {
+            ShardContext.runOn(shard, () -> ddl.forEach(jdbcTemplate::execute));
+            log.info("copied {} ddl statements to shard {}", ddl.size(), shard);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package study.querydsl.global.startup;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * 기동이 끝나면 BufferingApplicationStartup 이 기록한 단계 중 오래 걸린 것을 로그로 남긴다.
+ * 전체 타임라인은 /actuator/startup 으로 볼 수 있다. (main 에서 BufferingApplicationStartup 을 쓸 때만 동작)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StartupReport {
+
+    private final ApplicationStartup applicationStartup;
+
+    @Value("${startup-report.top:15}")
+    private int top;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report(ApplicationReadyEvent event) {
+        if (!(applicationStartup instanceof BufferingApplicationStartup buffering)) {
+            return;
+        }
+
+        List<StartupTimeline.TimelineEvent> events = buffering.getBufferedTimeline().getEvents();
+        String slowest = events.stream()
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(top)
+                .map(this::format)
+                .collect(Collectors.joining("\n  "));
+
+        log.info("started in {} ms ({} steps recorded), slowest steps:\n  {}",
+                event.getTimeTaken().toMillis(), events.size(), slowest);
+    }
+
+    private String format(StartupTimeline.TimelineEvent event) {
+        StartupStep step = event.getStartupStep();
+        String tags = StreamSupport.stream(step.getTags().spliterator(), false)
+                .map(tag -> tag.getKey() + "=" + tag.getValue())
+                .collect(Collectors.joining(", "));
+        return String.format("%6d ms  %s [%s]", event.getDuration().toMillis(), step.getName(), tags);
+    }
+}
@@ -0,0 +1,36 @@
+package study.querydsl.global.web;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Accept: application/x-jackson-smile 또는 application/cbor 로 요청하면 같은 응답(Page 포함)을 바이너리로 내려준다.
+ * JSON 과 같은 Jackson 설정(spring.jackson.*)을 쓰도록 Spring Boot 의 Jackson2ObjectMapperBuilder 로 만든다.
+ *
+ * Spring MVC 는 smile / cbor 라이브러리가 classpath 에 있으면 기본 설정 ObjectMapper 로 된 converter 를 이미 넣으므로 그것을 바꿔 끼운다.
+ * 모든 컨트롤러에 걸리지만 Accept 로 콕 집어 요청할 때만 골라진다. 목록 맨 뒤에 두므로 Accept 가 없거나 *&#47;* 이면 JSON 그대로다.
+ * HttpMessageConverter 빈으로 두지 않는 것은 Boot 가 빈을 RestTemplate 같은 클라이언트 converter 에도 끼워 넣기 때문이다.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class BinaryJsonConfig implements WebMvcConfigurer {
+
+    private final Jackson2ObjectMapperBuilder builder;
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(converter -> converter instanceof MappingJackson2SmileHttpMessageConverter
+                || converter instanceof MappingJackson2CborHttpMessageConverter);
+        converters.add(new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build()));
+        converters.add(new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build()));
+    }
+}
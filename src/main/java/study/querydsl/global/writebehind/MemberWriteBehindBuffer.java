@@ -0,0 +1,344 @@
+package study.querydsl.global.writebehind;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.domain.member.entity.Member;
+import study.querydsl.domain.team.service.TeamStatsService;
+import study.querydsl.global.cache.MemberSearchCacheEvictor;
+import study.querydsl.global.shard.ShardContext;
+import study.querydsl.global.shard.ShardOperations;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * member 단건 저장을 모아서 multi-row insert 한 번으로 내보낸다. (write-behind.enabled=true)
+ *
+ * - save 는 큐에 넣고 바로 돌아온다. 반환된 future 는 insert 가 커밋된 뒤 member_id 로 완료된다. 그 전에는 DB 에 없다.
+ * - 큐는 ConcurrentLinkedQueue + 크기 카운터(CAS)로 락 없이 capacity 를 지킨다. 가득 차면 flusher 를 깨우고 offerTimeout 까지 기다린다.
+ * - flusher 스레드 하나가 flushInterval 마다, 또는 maxBatchSize 만큼 차면 바로 내보낸다.
+ * - 엔티티를 거치지 않으므로 엔티티 리스너가 하는 일(검색 캐시 비우기, 팀 집계)은 flush 뒤에 직접 한다.
+ * - 묶음이 실패하면 한 건씩 다시 넣어서 문제 있는 row 의 future 만 실패시킨다. 생성 키를 row 수만큼 받지 못한 경우도 실패로 본다.
+ * - MemberJpaRepository#save(username, age, teamId) 가 켜져 있으면 여기로 보낸다. (POST /v1/members)
+ * 종료할 때는 새 save 를 받지 않고 남은 것을 모두 내보낸 뒤 끝난다. 프로세스가 죽으면 큐에 있던 것(ack 전)은 사라진다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "write-behind", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(WriteBehindProperties.class)
+public class MemberWriteBehindBuffer {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MemberSearchCacheEvictor memberSearchCacheEvictor;
+    private final TeamStatsService teamStatsService;
+    private final ShardOperations shardOperations;
+    private final WriteBehindProperties properties;
+
+    private final Queue<PendingMember> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    // flusher 스레드만 쓴다.
+    private final Map<Integer, String> insertSql = new HashMap<>();
+    private Boolean returning;
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    private final DistributionSummary batchSize;
+    private final Timer flushTimer;
+    private final Counter rejected;
+    private final Counter failed;
+
+    public MemberWriteBehindBuffer(JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   MemberSearchCacheEvictor memberSearchCacheEvictor,
+                                   TeamStatsService teamStatsService,
+                                   ShardOperations shardOperations,
+                                   WriteBehindProperties properties,
+                                   MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.memberSearchCacheEvictor = memberSearchCacheEvictor;
+        this.teamStatsService = teamStatsService;
+        this.shardOperations = shardOperations;
+        this.properties = properties;
+
+        this.flusher = new Thread(this::runFlusher, "member-write-behind");
+        this.flusher.setDaemon(true);
+
+        this.batchSize = DistributionSummary.builder("write-behind.batch.size")
+                .baseUnit("rows")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("write-behind.flush").register(meterRegistry);
+        this.rejected = Counter.builder("write-behind.rejected").register(meterRegistry);
+        this.failed = Counter.builder("write-behind.failed").register(meterRegistry);
+        Gauge.builder("write-behind.queue.size", size, AtomicInteger::get).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher.start();
+    }
+
+    /**
+     * @return insert 가 커밋되면 member_id 로 완료된다. insert 가 실패하면 그 예외로 실패한다.
+     * @throws WriteBehindFullException offerTimeout 안에 큐에 자리가 나지 않았다.
+     */
+    public CompletableFuture<Long> save(Member member) {
+        Long teamId = member.getTeam() == null ? null : member.getTeam().getId();
+        return save(member.getUsername(), member.getAge(), teamId);
+    }
+
+    public CompletableFuture<Long> save(String username, int age, Long teamId) {
+        if (!running) {
+            throw new IllegalStateException("write-behind buffer is shut down");
+        }
+        reserve();
+
+        CompletableFuture<Long> ack = new CompletableFuture<Long>()
+                .orTimeout(properties.getAckTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        PendingMember pending = new PendingMember(username, age, teamId, ack);
+        queue.offer(pending);
+        if (size.get() >= properties.getMaxBatchSize()) {
+            LockSupport.unpark(flusher);
+        }
+        return ack;
+    }
+
+    public int pending() {
+        return size.get();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(flusher);
+        flusher.join(TimeUnit.SECONDS.toMillis(30));
+        if (flusher.isAlive()) {
+            log.warn("write-behind flusher did not finish, {} members may be lost", size.get());
+        }
+    }
+
+    private void reserve() {
+        long deadline = System.nanoTime() + properties.getOfferTimeout().toNanos();
+        while (true) {
+            int current = size.get();
+            if (current < properties.getCapacity()) {
+                if (size.compareAndSet(current, current + 1)) {
+                    return;
+                }
+                continue;
+            }
+
+            // 가득 찼다. 주기를 기다리지 말고 바로 비우게 한다.
+            LockSupport.unpark(flusher);
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                rejected.increment();
+                throw new WriteBehindFullException(properties.getCapacity(), properties.getFlushInterval());
+            }
+            LockSupport.parkNanos(this, Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(1)));
+        }
+    }
+
+    private void runFlusher() {
+        long intervalNanos = properties.getFlushInterval().toNanos();
+        while (running || size.get() > 0) {
+            if (running && size.get() < properties.getMaxBatchSize()) {
+                LockSupport.parkNanos(this, intervalNanos);
+            }
+            drain();
+        }
+    }
+
+    private void drain() {
+        List<PendingMember> batch = new ArrayList<>(properties.getMaxBatchSize());
+        PendingMember pending;
+        while ((pending = queue.poll()) != null) {
+            size.decrementAndGet();
+            batch.add(pending);
+            if (batch.size() == properties.getMaxBatchSize()) {
+                flush(batch);
+                batch = new ArrayList<>(properties.getMaxBatchSize());
+            }
+        }
+        if (!batch.isEmpty()) {
+            flush(batch);
+        }
+    }
+
+    /**
+     * shard 를 쓰면 member 가 팀의 shard 에 들어가도록 shard 별로 나눠서 insert 한다.
+     */
+    private void flush(List<PendingMember> batch) {
+        if (!shardOperations.enabled()) {
+            flushBatch(batch);
+            return;
+        }
+
+        Map<Integer, List<PendingMember>> byShard = new TreeMap<>();
+        for (PendingMember pending : batch) {
+            byShard.computeIfAbsent(shardOperations.shardOf(pending.teamId()), shard -> new ArrayList<>()).add(pending);
+        }
+        byShard.forEach((shard, part) -> ShardContext.runOn(shard, () -> flushBatch(part)));
+    }
+
+    /**
+     * 커밋 전에 실패한 묶음만 한 건씩 다시 넣는다. 커밋된 뒤에 난 예외로 다시 넣으면 같은 member 가 두 번 들어간다.
+     */
+    private void flushBatch(List<PendingMember> batch) {
+        batchSize.record(batch.size());
+        List<Long> ids = new ArrayList<>(batch.size());
+        AtomicBoolean committed = new AtomicBoolean();
+        try {
+            flushTimer.record(() -> transactionTemplate.executeWithoutResult(status -> {
+                ids.addAll(insert(batch));
+                teamStatsService.trackCommit();
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        afterInsert(batch);
+                    }
+
+                    // 앞선 synchronization 의 afterCommit 이 던져도 afterCompletion 은 불린다.
+                    @Override
+                    public void afterCompletion(int status) {
+                        committed.set(status == STATUS_COMMITTED);
+                    }
+                });
+            }));
+        } catch (RuntimeException e) {
+            if (committed.get()) {
+                // 다른 synchronization 이 커밋 뒤에 던졌다. row 는 이미 들어갔으므로 그대로 ack 한다.
+                log.error("write-behind batch of {} committed but failed afterwards", batch.size(), e);
+            } else if (batch.size() == 1) {
+                failed.increment();
+                batch.get(0).ack().completeExceptionally(e);
+                return;
+            } else {
+                log.warn("write-behind batch of {} failed, retrying one by one: {}", batch.size(), e.getMessage());
+                for (PendingMember one : batch) {
+                    flushBatch(List.of(one));
+                }
+                return;
+            }
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).ack().complete(ids.get(i));
+        }
+    }
+
+    /**
+     * 커밋 직후, ack 를 주기 전에 캐시와 팀 집계부터 맞춰서 ack 를 받은 호출자가 바로 조회해도 새 member 가 보이게 한다.
+     * 여기서 던지면 이미 커밋된 묶음이 실패로 보이므로 로그만 남긴다. (팀 집계는 다음 reconcile 이 바로잡는다)
+     */
+    private void afterInsert(List<PendingMember> batch) {
+        try {
+            memberSearchCacheEvictor.evictAll();
+            for (PendingMember pending : batch) {
+                if (pending.teamId() != null) {
+                    teamStatsService.memberJoined(pending.teamId(), pending.age());
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("write-behind batch of {} committed but cache/team stats update failed", batch.size(), e);
+        }
+    }
+
+    /**
+     * 생성된 member_id 를 values 순서대로 돌려준다.
+     * MariaDB Connector/J 3 은 multi-row insert 의 생성 키를 첫 row 것만 돌려주므로 MariaDB 에서는 insert ... returning 으로 받는다.
+     * 그 밖의 DB(H2 등)는 생성 키를 쓰고, 받은 키 수가 row 수와 다르면 예외로 묶음을 롤백해서 한 건씩 다시 넣게 한다.
+     */
+    private List<Long> insert(List<PendingMember> batch) {
+        return jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            if (returning == null) {
+                returning = connection.getMetaData().getDatabaseProductName().toLowerCase().contains("mariadb");
+            }
+            String sql = insertSql.computeIfAbsent(batch.size(), rows -> multiRowInsert(rows, returning));
+            try (PreparedStatement ps = returning
+                    ? connection.prepareStatement(sql)
+                    : connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                // auditing 을 거치지 않으므로 생성/수정 시각을 직접 넣는다.
+                LocalDateTime now = LocalDateTime.now();
+                int index = 1;
+                for (PendingMember pending : batch) {
+                    ps.setString(index++, pending.username());
+                    ps.setInt(index++, pending.age());
+                    if (pending.teamId() == null) {
+                        ps.setNull(index++, Types.BIGINT);
+                    } else {
+                        ps.setLong(index++, pending.teamId());
+                    }
+                    ps.setObject(index++, now);
+                    ps.setObject(index++, now);
+                }
+
+                List<Long> ids = new ArrayList<>(batch.size());
+                if (returning) {
+                    try (ResultSet returned = ps.executeQuery()) {
+                        while (returned.next()) {
+                            ids.add(returned.getLong(1));
+                        }
+                    }
+                } else {
+                    ps.executeUpdate();
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        while (keys.next()) {
+                            ids.add(keys.getLong(1));
+                        }
+                    }
+                }
+                if (ids.size() != batch.size()) {
+                    throw new IllegalStateException("driver returned " + ids.size() + " generated keys for " + batch.size() + " rows");
+                }
+                return ids;
+            }
+        });
+    }
+
+    private static String multiRowInsert(int rows, boolean returning) {
+        StringBuilder sql = new StringBuilder("insert into member (username, age, team_id, created_at, updated_at) values ");
+        for (int i = 0; i < rows; i++) {
+            sql.append(i == 0 ? "(?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?)");
+        }
+        if (returning) {
+            sql.append(" returning member_id");
+        }
+        return sql.toString();
+    }
+
+    private record PendingMember(String username, int age, Long teamId, CompletableFuture<Long> ack) {
+    }
+}
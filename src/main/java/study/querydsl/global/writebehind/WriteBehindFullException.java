@@ -0,0 +1,16 @@
+package study.querydsl.global.writebehind;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public class WriteBehindFullException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public WriteBehindFullException(int capacity, Duration retryAfter) {
+        super("write-behind buffer is full (capacity " + capacity + ")");
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,31 @@
+package study.querydsl.global.writebehind;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "write-behind")
+public class WriteBehindProperties {
+
+    /** 켜면 MemberWriteBehindBuffer 가 뜨고 MemberJpaRepository#save(username, age, teamId) 가 그리로 간다. save(Member) 는 그대로 즉시 insert 한다. */
+    private boolean enabled = false;
+
+    /** 큐에 쌓아 둘 수 있는 최대 건수. 넘으면 save 가 offerTimeout 만큼 기다린다. */
+    private int capacity = 10_000;
+
+    /** insert 한 번에 넣을 최대 row 수. 큐가 이만큼 차면 주기를 기다리지 않고 바로 내보낸다. */
+    private int maxBatchSize = 200;
+
+    /** 이 주기마다 쌓인 만큼 내보낸다. 한 건이 ack 받기까지 걸리는 최대 지연이다. */
+    private Duration flushInterval = Duration.ofMillis(20);
+
+    /** 큐가 가득 찼을 때 기다리는 최대 시간. 지나면 WriteBehindFullException */
+    private Duration offerTimeout = Duration.ofMillis(100);
+
+    /** save 가 돌려준 future 가 ack 를 기다리는 최대 시간. flusher 가 멈춰도 호출자가 끝없이 기다리지 않게 TimeoutException 으로 끝낸다. (insert 는 그 뒤에 커밋될 수 있다) */
+    private Duration ackTimeout = Duration.ofSeconds(5);
+}
@@ -0,0 +1,116 @@
+package study.querydsl.perf.count;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.querydsl.QuerydslApplication;
+import study.querydsl.domain.member.dto.MemberSearchCondition;
+import study.querydsl.domain.member.repository.MemberRepository;
+import study.querydsl.perf.support.CapturingStatementInspector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 검색 조건 조합마다 count 쿼리의 실행 계획과 지연 시간을 확인한다.
+ * perf 프로필 DB(MariaDB, 1000만 건 이상)를 대상으로 돌린다.
+ *
+ * ./gradlew countQueryPlan -Pargs="--spring.datasource.url=jdbc:mariadb://localhost:3306/querydsl_perf"
+ *
+ * member 테이블 접근이 "Using index"(커버링 인덱스)가 아니면 실패로 표시한다.
+ * 모든 조건 조합에 @SQLRestriction 의 deleted = false 가 붙으므로 deleted 가 없는 인덱스로는 통과하지 못한다.
+ * ddl-auto=update 는 인덱스를 지우지 않으므로, 이전 인덱스(idx_member_age, idx_member_username_age, idx_member_team_age)가 남은 DB 에서는 먼저 지운다.
+ */
+@Slf4j
+public class CountQueryPlanCheck {
+
+    private static final int REPEAT = 20;
+
+    public static void main(String[] args) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(QuerydslApplication.class)
+                .profiles("perf")
+                .web(WebApplicationType.NONE)
+                .properties(CapturingStatementInspector.property())
+                .run(args);
+
+        try {
+            MemberRepository memberRepository = context.getBean(MemberRepository.class);
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+            boolean allCovered = true;
+            for (Map.Entry<String, MemberSearchCondition> shape : shapes().entrySet()) {
+                MemberSearchCondition condition = shape.getValue();
+
+                long[] elapsed = new long[REPEAT];
+                long count = 0;
+                for (int i = 0; i < REPEAT; i++) {
+                    long start = System.nanoTime();
+                    count = memberRepository.searchCount(condition);
+                    elapsed[i] = System.nanoTime() - start;
+                }
+                Arrays.sort(elapsed);
+
+                String sql = CapturingStatementInspector.lastSql();
+                List<Map<String, Object>> plan = jdbcTemplate.queryForList("explain " + sql, parameters(condition));
+                boolean covered = plan.stream()
+                        .filter(CountQueryPlanCheck::isMemberTable)
+                        .allMatch(row -> String.valueOf(row.get("Extra")).contains("Using index"));
+                allCovered &= covered;
+
+                log.info("[{}] count={} median={}ms covered={}\n  sql={}\n  plan={}",
+                        shape.getKey(), count, elapsed[REPEAT / 2] / 1_000_000.0, covered, sql, plan);
+            }
+
+            if (!allCovered) {
+                log.warn("some count shapes are not answered from a covering index");
+            }
+        } finally {
+            context.close();
+        }
+    }
+
+    /**
+     * EXPLAIN 의 table 컬럼에는 Hibernate 가 붙인 별칭(m1_0)이 나온다.
+     */
+    private static boolean isMemberTable(Map<String, Object> row) {
+        String table = String.valueOf(row.get("table"));
+        return table.equalsIgnoreCase("member") || table.startsWith("m1_");
+    }
+
+    /**
+     * where 절에 들어가는 순서(username, teamName, ageGoe, ageLoe)대로 바인딩 값을 만든다.
+     */
+    private static Object[] parameters(MemberSearchCondition condition) {
+        List<Object> parameters = new ArrayList<>();
+        if (condition.getUsername() != null) parameters.add(condition.getUsername());
+        if (condition.getTeamName() != null) parameters.add(condition.getTeamName());
+        if (condition.getAgeGoe() != null) parameters.add(condition.getAgeGoe());
+        if (condition.getAgeLoe() != null) parameters.add(condition.getAgeLoe());
+        return parameters.toArray();
+    }
+
+    private static Map<String, MemberSearchCondition> shapes() {
+        Map<String, MemberSearchCondition> shapes = new LinkedHashMap<>();
+        shapes.put("none", condition(null, null, null, null));
+        shapes.put("username", condition("user1", null, null, null));
+        shapes.put("username+age", condition("user1", null, 20, 40));
+        shapes.put("team", condition(null, "team00001", null, null));
+        shapes.put("team+age", condition(null, "team00001", 20, 40));
+        shapes.put("age", condition(null, null, 20, 40));
+        return shapes;
+    }
+
+    private static MemberSearchCondition condition(String username, String teamName, Integer ageGoe, Integer ageLoe) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername(username);
+        condition.setTeamName(teamName);
+        condition.setAgeGoe(ageGoe);
+        condition.setAgeLoe(ageLoe);
+        return condition;
+    }
+}
@@ -0,0 +1,91 @@
+package study.querydsl.perf.jmh;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.global.accumulator.MemberAgeAccumulator;
+import study.querydsl.perf.support.EmbeddedApp;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.domain.member.entity.QMember.member;
+
+/**
+ * 16 스레드가 소수의 hot member(hotMembers 명) 나이를 1씩 올린다.
+ * - direct : 건마다 트랜잭션 + update member set age = age + 1 where member_id = ? (row 락 경합)
+ * - accumulated : MemberAgeAccumulator 에 더하기만 한다. DB 반영은 1초마다 flush 가 한다.
+ * accumulated 는 durability 가 다르다(flush 전 유실 가능). 같은 조건의 비교가 아니라 경합 비용을 보는 것이다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(16)
+@Fork(1)
+public class AgeIncrementBenchmark {
+
+    @Param({"1", "16", "1024"})
+    int hotMembers;
+
+    private ConfigurableApplicationContext context;
+    private JPAQueryFactory queryFactory;
+    private TransactionTemplate transactionTemplate;
+    private MemberAgeAccumulator accumulator;
+    private Long[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = EmbeddedApp.start(false, Map.of("datagen.members", "10000"));
+        queryFactory = context.getBean(JPAQueryFactory.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        accumulator = context.getBean(MemberAgeAccumulator.class);
+
+        List<Long> memberIds = context.getBean(JdbcTemplate.class)
+                .queryForList("select member_id from member order by member_id limit " + hotMembers, Long.class);
+        ids = memberIds.toArray(Long[]::new);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void direct() {
+        Long id = pick();
+        transactionTemplate.executeWithoutResult(status -> queryFactory
+                .update(member)
+                .set(member.age, member.age.add(1))
+                .where(member.id.eq(id))
+                .execute());
+    }
+
+    @Benchmark
+    public void accumulated() {
+        accumulator.increment(pick());
+    }
+
+    private Long pick() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+}
@@ -0,0 +1,90 @@
+package study.querydsl.perf.jmh;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import study.querydsl.domain.member.dto.MemberTeamDto;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /v3/members 가 내려주는 Page&lt;MemberTeamDto&gt; 를 JSON / Smile / CBOR 로 encode, decode 하는 비용을 비교한다.
+ * payload 크기는 setup 에서 한 번 로그로 남긴다.
+ */
+@Slf4j
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class EncodingBenchmark {
+
+    @Param({"1000", "10000"})
+    int rows;
+
+    @Param({"json", "smile", "cbor"})
+    String format;
+
+    private ObjectMapper mapper;
+    private PageImpl<MemberTeamDto> page;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        mapper = switch (format) {
+            case "smile" -> new SmileMapper();
+            case "cbor" -> new CBORMapper();
+            default -> new JsonMapper();
+        };
+
+        SplittableRandom random = new SplittableRandom(42);
+        List<MemberTeamDto> content = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            long teamId = random.nextLong(1, 200);
+            content.add(new MemberTeamDto((long) i + 1, "user" + random.nextInt(200_000), random.nextInt(1, 100), teamId, String.format("team%05d", teamId)));
+        }
+        page = new PageImpl<>(content, PageRequest.of(0, rows), 1_000_000);
+        encoded = mapper.writeValueAsBytes(page);
+
+        log.info("{} rows={} payload={} bytes ({} bytes/row)", format, rows, encoded.length, String.format("%.1f", (double) encoded.length / rows));
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return mapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public PageEnvelope decode() throws IOException {
+        return mapper.readValue(encoded, PageEnvelope.class);
+    }
+
+    /**
+     * 호출하는 쪽이 Page 응답에서 실제로 읽는 부분.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record PageEnvelope(List<MemberTeamDto> content, long totalElements) {
+    }
+}
@@ -0,0 +1,93 @@
+package study.querydsl.perf.jmh;
+
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.domain.member.entity.Member;
+import study.querydsl.perf.support.EmbeddedApp;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 엔티티를 읽고 flush 하는 비용. 바이트코드 향상을 켠 빌드와 끈 빌드(-PnoEnhancement)에서 각각 돌려 비교한다.
+ * - loadAndFlush   : 바뀐 것 없이 flush. 향상 전에는 모든 엔티티의 스냅샷을 비교한다.
+ * - updateAndFlush : dirtyPercent 만큼만 나이를 바꾸고 flush.
+ * 트랜잭션은 롤백해서 매번 같은 데이터로 돈다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class EntityFlushBenchmark {
+
+    @Param({"10000", "50000"})
+    int rows;
+
+    @Param({"1", "100"})
+    int dirtyPercent;
+
+    private ConfigurableApplicationContext context;
+    private EntityManager em;
+    private TransactionTemplate transaction;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = EmbeddedApp.start(false, Map.of("datagen.members", "50000"));
+        em = context.getBean(EntityManager.class);
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int loadAndFlush() {
+        return transaction.execute(status -> {
+            List<Member> members = load();
+            em.flush();
+            status.setRollbackOnly();
+            return members.size();
+        });
+    }
+
+    @Benchmark
+    public int updateAndFlush() {
+        return transaction.execute(status -> {
+            List<Member> members = load();
+            int step = 100 / dirtyPercent;
+            for (int i = 0; i < members.size(); i += step) {
+                Member member = members.get(i);
+                member.changeAge(member.getAge() + 1);
+            }
+            em.flush();
+            status.setRollbackOnly();
+            return members.size();
+        });
+    }
+
+    private List<Member> load() {
+        return em.createQuery("select m from Member m order by m.id", Member.class)
+                .setMaxResults(rows)
+                .getResultList();
+    }
+}
@@ -0,0 +1,95 @@
+package study.querydsl.perf.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.domain.member.dto.MemberSearchCondition;
+import study.querydsl.domain.member.dto.MemberTeamDto;
+import study.querydsl.domain.member.repository.MemberRepository;
+import study.querydsl.domain.member.repository.MemberSqlRepository;
+import study.querydsl.global.datagen.MemberDataGenerator;
+import study.querydsl.perf.support.EmbeddedApp;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 같은 searchPageComplex 를 JPA(JPQL) 구현과 querydsl-sql 구현으로 돌려서 쿼리당 시간과 할당량을 비교한다.
+ * 단일 스레드 AverageTime 이라 시간 ≒ 쿼리당 CPU, -prof gc 의 gc.alloc.rate.norm 이 쿼리당 할당 바이트다.
+ * 둘 다 같은 read-only 트랜잭션 안에서 돌리고, 검색 캐시는 끈다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MemberSearchEngineBenchmark {
+
+    @Param({"none", "team", "age"})
+    String shape;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository jpa;
+    private MemberSqlRepository sql;
+    private TransactionTemplate readOnly;
+    private MemberSearchCondition condition;
+    private Pageable pageable;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = EmbeddedApp.start(false, Map.of(
+                "member.search.engine", "sql",
+                "search-cache.maximum-weight", "0",
+                "datagen.members", "100000"
+        ));
+        jpa = context.getBean(MemberRepository.class);
+        sql = context.getBean(MemberSqlRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+
+        condition = new MemberSearchCondition();
+        switch (shape) {
+            case "team" -> condition.setTeamName(MemberDataGenerator.teamName(1));
+            case "age" -> {
+                condition.setAgeGoe(30);
+                condition.setAgeLoe(40);
+            }
+            default -> {
+            }
+        }
+        pageable = PageRequest.of(1, 20, Sort.by("age"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> jpa() {
+        return readOnly.execute(status -> jpa.searchPageComplex(condition, pageable));
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> sql() {
+        return readOnly.execute(status -> sql.searchPageComplex(condition, pageable));
+    }
+}
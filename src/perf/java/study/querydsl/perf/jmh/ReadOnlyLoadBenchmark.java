@@ -0,0 +1,84 @@
+package study.querydsl.perf.jmh;
+
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.domain.member.entity.Member;
+import study.querydsl.global.jpa.ReadOnlyQueries;
+import study.querydsl.perf.support.EmbeddedApp;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 큰 결과를 엔티티로 읽을 때 일반 조회 / readOnly 힌트 / StatelessSession 을 비교한다.
+ * 쓰기 트랜잭션 안에서 돌려서(서비스에서 흔한 경우) 영속성 컨텍스트가 스냅샷을 만들고 flush 시 dirty checking 까지 하게 둔다.
+ * -prof gc 의 gc.alloc.rate.norm 을 rows 로 나누면 row 당 할당 바이트다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ReadOnlyLoadBenchmark {
+
+    private static final String JPQL = "select m from Member m where m.id <= :maxId";
+
+    @Param({"1000", "10000", "100000"})
+    int rows;
+
+    private ConfigurableApplicationContext context;
+    private EntityManager em;
+    private TransactionTemplate transaction;
+    private long maxId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = EmbeddedApp.start(false, Map.of("datagen.members", "100000"));
+        em = context.getBean(EntityManager.class);
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        maxId = transaction.execute(status -> em.createQuery("select min(m.id) from Member m", Long.class).getSingleResult()) + rows - 1;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Member> managed() {
+        return transaction.execute(status -> em.createQuery(JPQL, Member.class)
+                .setParameter("maxId", maxId)
+                .getResultList());
+    }
+
+    @Benchmark
+    public List<Member> readOnly() {
+        return transaction.execute(status -> ReadOnlyQueries.readOnly(em.createQuery(JPQL, Member.class))
+                .setParameter("maxId", maxId)
+                .getResultList());
+    }
+
+    @Benchmark
+    public List<Member> stateless() {
+        return ReadOnlyQueries.stateless(em, session -> session.createQuery(JPQL, Member.class)
+                .setParameter("maxId", maxId)
+                .getResultList());
+    }
+}
@@ -0,0 +1,66 @@
+package study.querydsl.perf.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.domain.team.dto.TeamMemberRankDto;
+import study.querydsl.domain.team.repository.TeamMemberRankRepository;
+import study.querydsl.perf.support.EmbeddedApp;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 팀별 top N 을 윈도우 함수(파생 테이블 + ROW_NUMBER) 와 상관 서브쿼리(JPQL)로 구해서 비교한다.
+ * 서브쿼리 쪽은 바깥 row 마다 같은 팀 member 를 다시 훑으므로 팀 크기(members / teams)가 커질수록 벌어진다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TopMembersPerTeamBenchmark {
+
+    @Param({"1", "10"})
+    int n;
+
+    @Param({"20000", "50000"})
+    String members;
+
+    private ConfigurableApplicationContext context;
+    private TeamMemberRankRepository repository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = EmbeddedApp.start(false, Map.of("datagen.members", members));
+        repository = context.getBean(TeamMemberRankRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<TeamMemberRankDto> window() {
+        return repository.topOldestPerTeam(n);
+    }
+
+    @Benchmark
+    public List<TeamMemberRankDto> correlatedSubquery() {
+        return repository.topOldestPerTeamSubquery(n);
+    }
+}
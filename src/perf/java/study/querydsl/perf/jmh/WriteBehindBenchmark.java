@@ -0,0 +1,73 @@
+package study.querydsl.perf.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.domain.member.entity.Member;
+import study.querydsl.domain.member.repository.MemberJpaRepository;
+import study.querydsl.global.writebehind.MemberWriteBehindBuffer;
+import study.querydsl.perf.support.EmbeddedApp;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 16 스레드가 member 를 한 건씩 저장한다.
+ * - direct : 건마다 트랜잭션 + em.persist (IDENTITY 라 바로 insert)
+ * - writeBehind : 버퍼에 넣고 ack(커밋)까지 기다린다. 같은 durability 에서 몇 건이 한 insert 로 묶이는지가 차이다.
+ * 묶음 크기는 write-behind.batch.size 메트릭으로 본다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(16)
+@Fork(1)
+public class WriteBehindBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private MemberJpaRepository memberJpaRepository;
+    private MemberWriteBehindBuffer buffer;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = EmbeddedApp.start(false, Map.of(
+                "write-behind.enabled", "true",
+                "write-behind.flush-interval", "5ms",
+                "datagen.members", "10000"
+        ));
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        buffer = context.getBean(MemberWriteBehindBuffer.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void direct() {
+        transactionTemplate.executeWithoutResult(status -> memberJpaRepository.save(new Member("direct", 20)));
+    }
+
+    @Benchmark
+    public Long writeBehind() {
+        return buffer.save("behind", 20, null).join();
+    }
+}
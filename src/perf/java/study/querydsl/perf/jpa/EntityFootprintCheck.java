@@ -0,0 +1,67 @@
+package study.querydsl.perf.jpa;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.ManagedEntity;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.domain.member.entity.Member;
+import study.querydsl.perf.support.EmbeddedApp;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Member 를 영속성 컨텍스트에 많이 올려 둔 상태의 힙 사용량(엔티티 + 스냅샷 + 엔트리)과 flush 시간을 잰다.
+ * 바이트코드 향상을 끈 빌드(-PnoEnhancement)와 결과를 비교한다.
+ *
+ * ./gradlew entityFootprint
+ * ./gradlew entityFootprint -PnoEnhancement
+ */
+@Slf4j
+public class EntityFootprintCheck {
+
+    private static final int MEMBERS = 200_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        ConfigurableApplicationContext context = EmbeddedApp.start(false, Map.of("datagen.members", String.valueOf(MEMBERS)));
+        try {
+            EntityManager em = context.getBean(EntityManager.class);
+            TransactionTemplate transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+            log.info("enhanced = {}", ManagedEntity.class.isAssignableFrom(Member.class));
+
+            for (int round = 0; round < ROUNDS; round++) {
+                transaction.executeWithoutResult(status -> {
+                    long before = usedHeap();
+                    List<Member> members = em.createQuery("select m from Member m", Member.class).getResultList();
+                    long loaded = usedHeap();
+
+                    long flushStart = System.nanoTime();
+                    em.flush();
+                    long cleanFlushMicros = (System.nanoTime() - flushStart) / 1_000;
+
+                    members.forEach(member -> member.changeAge(member.getAge() + 1));
+                    flushStart = System.nanoTime();
+                    em.flush();
+                    long dirtyFlushMicros = (System.nanoTime() - flushStart) / 1_000;
+
+                    log.info("{} members: {} bytes/entity retained, clean flush {} us, dirty flush {} us",
+                            members.size(), (loaded - before) / Math.max(1, members.size()), cleanFlushMicros, dirtyFlushMicros);
+                    status.setRollbackOnly();
+                });
+            }
+        } finally {
+            context.close();
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,74 @@
+package study.querydsl.perf.jpa;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.perf.support.CapturingStatementInspector;
+import study.querydsl.perf.support.EmbeddedApp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static study.querydsl.domain.member.entity.QMember.member;
+
+/**
+ * 길이가 제각각인 id 목록으로 IN 쿼리를 반복했을 때 padding 유무에 따른 캐시 사용량을 비교한다.
+ *
+ * JPQL 은 "member.id in ?1" 로 길이와 상관없이 같으므로 쿼리 플랜 캐시는 원래도 한 항목이다.
+ * 달라지는 건 SQL 로 풀린 IN (?, ?, ...) 이고, 이것이 DB 쪽 prepared statement 캐시 항목 수가 된다.
+ */
+@Slf4j
+public class InClausePaddingBench {
+
+    private static final int QUERIES = 2_000;
+    private static final int MAX_IDS = 200;
+    private static final int MEMBERS = 20_000;
+
+    public static void main(String[] args) {
+        for (boolean padding : new boolean[]{false, true}) {
+            run(padding);
+        }
+    }
+
+    private static void run(boolean padding) {
+        ConfigurableApplicationContext context = EmbeddedApp.start(false, Map.of(
+                "spring.datasource.url", "jdbc:h2:mem:in-clause-" + padding + ";MODE=MariaDB;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "spring.jpa.properties.hibernate.query.in_clause_parameter_padding", String.valueOf(padding),
+                "spring.jpa.properties.hibernate.session_factory.statement_inspector", CapturingStatementInspector.class.getName(),
+                "datagen.members", String.valueOf(MEMBERS)
+        ));
+
+        try {
+            JPAQueryFactory queryFactory = context.getBean(JPAQueryFactory.class);
+            Statistics statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+            statistics.clear();
+            CapturingStatementInspector.reset();
+
+            SplittableRandom random = new SplittableRandom(42);
+            long start = System.nanoTime();
+            for (int i = 0; i < QUERIES; i++) {
+                List<Long> ids = new ArrayList<>();
+                int length = random.nextInt(1, MAX_IDS + 1);
+                for (int j = 0; j < length; j++) {
+                    ids.add((long) random.nextInt(1, MEMBERS + 1));
+                }
+                queryFactory.selectFrom(member).where(member.id.in(ids)).fetch();
+            }
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            log.info("padding={} queries={} elapsed={}ms distinctSql={} planCacheHit={} planCacheMiss={} prepared={}",
+                    padding, QUERIES, elapsedMillis,
+                    CapturingStatementInspector.distinctSqlCount(),
+                    statistics.getQueryPlanCacheHitCount(),
+                    statistics.getQueryPlanCacheMissCount(),
+                    statistics.getPrepareStatementCount());
+        } finally {
+            context.close();
+        }
+    }
+}
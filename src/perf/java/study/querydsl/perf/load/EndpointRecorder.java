@@ -0,0 +1,91 @@
+package study.querydsl.perf.load;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 엔드포인트 하나의 응답 시간과 상태 코드를 모은다.
+ */
+class EndpointRecorder {
+
+    private final String endpoint;
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private long[] latencies = new long[1024];
+    private int size;
+
+    EndpointRecorder(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    void record(long elapsedNanos, int status) {
+        if (status == 503) {
+            rejected.increment();
+        } else if (status < 200 || status >= 400) {
+            errors.increment();
+        }
+
+        synchronized (this) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = elapsedNanos;
+        }
+    }
+
+    /**
+     * 클라이언트 쪽 동시 요청 한도에 걸려서 아예 보내지 못한 요청
+     */
+    void dropped() {
+        dropped.increment();
+    }
+
+    synchronized EndpointStats stats(double seconds) {
+        long[] sorted = Arrays.copyOf(latencies, size);
+        Arrays.sort(sorted);
+        long failed = errors.sum() + rejected.sum();
+
+        return new EndpointStats(
+                endpoint,
+                size,
+                (size - failed) / seconds,
+                size == 0 ? 0 : (double) failed / size,
+                errors.sum(),
+                rejected.sum(),
+                dropped.sum(),
+                percentile(sorted, 0.50),
+                percentile(sorted, 0.95),
+                percentile(sorted, 0.99),
+                sorted.length == 0 ? 0 : toMillis(sorted[sorted.length - 1])
+        );
+    }
+
+    private double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return toMillis(sorted[Math.max(0, index)]);
+    }
+
+    private double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    record EndpointStats(
+            String endpoint,
+            long requests,
+            double throughputRps,
+            double errorRate,
+            long errors,
+            long rejected503,
+            long dropped,
+            double p50Ms,
+            double p95Ms,
+            double p99Ms,
+            double maxMs
+    ) {
+    }
+}
@@ -0,0 +1,95 @@
+package study.querydsl.perf.load;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 목표 RPS 에 맞춰 요청을 일정한 간격으로 보낸다(open model).
+ * 응답이 늦어져도 보내는 속도는 줄이지 않아서, 서버가 밀릴 때의 지연이 그대로 드러난다.
+ */
+@Slf4j
+class LoadGenerator {
+
+    private final LoadTestConfig config;
+    private final String baseUrl;
+
+    LoadGenerator(LoadTestConfig config, String baseUrl) {
+        this.config = config;
+        this.baseUrl = baseUrl;
+    }
+
+    LoadReport run() throws InterruptedException {
+        ScenarioPicker picker = new ScenarioPicker(config.scenarios(), config.seed());
+        Map<String, EndpointRecorder> recorders = new ConcurrentHashMap<>();
+        Semaphore inFlight = new Semaphore(config.maxInFlight());
+        ExecutorService callbacks = Executors.newFixedThreadPool(4);
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(callbacks)
+                .build();
+
+        long startedAt = System.nanoTime();
+        long measureFrom = startedAt + TimeUnit.SECONDS.toNanos(config.warmupSeconds());
+        long endAt = measureFrom + TimeUnit.SECONDS.toNanos(config.durationSeconds());
+        CountDownLatch finished = new CountDownLatch(1);
+
+        ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor();
+        ticker.scheduleAtFixedRate(() -> {
+            long now = System.nanoTime();
+            if (now >= endAt) {
+                finished.countDown();
+                return;
+            }
+
+            ScenarioPicker.LoadRequest request = picker.next();
+            EndpointRecorder recorder = now >= measureFrom
+                    ? recorders.computeIfAbsent(request.endpoint(), EndpointRecorder::new)
+                    : null;
+
+            if (!inFlight.tryAcquire()) {
+                if (recorder != null) {
+                    recorder.dropped();
+                }
+                return;
+            }
+
+            HttpRequest httpRequest = HttpRequest.newBuilder(URI.create(baseUrl + request.pathAndQuery()))
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+            client.sendAsync(httpRequest, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        inFlight.release();
+                        if (recorder != null) {
+                            recorder.record(System.nanoTime() - now, error == null ? response.statusCode() : -1);
+                        }
+                    });
+        }, 0, TimeUnit.SECONDS.toNanos(1) / config.targetRps(), TimeUnit.NANOSECONDS);
+
+        finished.await();
+        ticker.shutdownNow();
+        if (!inFlight.tryAcquire(config.maxInFlight(), 30, TimeUnit.SECONDS)) {
+            log.warn("in-flight requests did not finish within 30s");
+        }
+        callbacks.shutdown();
+
+        Map<String, EndpointRecorder.EndpointStats> endpoints = new TreeMap<>();
+        recorders.forEach((endpoint, recorder) -> endpoints.put(endpoint, recorder.stats(config.durationSeconds())));
+        return new LoadReport(Instant.now().toString(), baseUrl, config, endpoints);
+    }
+}
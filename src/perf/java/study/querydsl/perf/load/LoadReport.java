@@ -0,0 +1,37 @@
+package study.querydsl.perf.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * 실행 결과. JSON 으로 남겨서 실행끼리 비교할 수 있게 한다.
+ */
+record LoadReport(
+        String finishedAt,
+        String target,
+        LoadTestConfig config,
+        Map<String, EndpointRecorder.EndpointStats> endpoints
+) {
+
+    Path write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve("load-report-" + finishedAt.replace(':', '-') + ".json");
+        new ObjectMapper()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(file.toFile(), this);
+        return file;
+    }
+
+    String summary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-22s %8s %9s %7s %8s %8s %8s%n", "endpoint", "req", "rps", "err%", "p50", "p95", "p99"));
+        endpoints.values().forEach(s -> sb.append(String.format("%-22s %8d %9.1f %6.2f%% %8.2f %8.2f %8.2f%n",
+                s.endpoint(), s.requests(), s.throughputRps(), s.errorRate() * 100, s.p50Ms(), s.p95Ms(), s.p99Ms())));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,41 @@
+package study.querydsl.perf.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 부하 테스트 설정. baseUrl 이 없으면 H2 위에 앱을 직접 띄워서 테스트한다.
+ *
+ * params 값 규칙
+ * - "a|b|c" : 셋 중 하나를 고른다.
+ * - "1..100" : 범위 안의 정수를 고른다.
+ * - 그 외 : 그대로 쓴다.
+ */
+public record LoadTestConfig(
+        String baseUrl,
+        int targetRps,
+        int warmupSeconds,
+        int durationSeconds,
+        int maxInFlight,
+        long seed,
+        List<Scenario> scenarios
+) {
+
+    public record Scenario(
+            String name,
+            String path,
+            int weight,
+            Map<String, String> params,
+            List<Integer> pageDepths,
+            Integer pageSize
+    ) {
+    }
+
+    public static LoadTestConfig read(Path path) throws IOException {
+        return new ObjectMapper().readValue(path.toFile(), LoadTestConfig.class);
+    }
+}
@@ -0,0 +1,37 @@
+package study.querydsl.perf.load;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.perf.support.EmbeddedApp;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * ./gradlew loadTest -PloadTestConfig=src/perf/resources/load-test.json
+ */
+@Slf4j
+public class LoadTestRunner {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.read(Path.of(args.length > 0 ? args[0] : "src/perf/resources/load-test.json"));
+        Path reportDir = Path.of(args.length > 1 ? args[1] : "build/load-test");
+
+        ConfigurableApplicationContext context = null;
+        String baseUrl = config.baseUrl();
+        if (baseUrl == null) {
+            context = EmbeddedApp.start(true, Map.of());
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        }
+
+        try {
+            LoadReport report = new LoadGenerator(config, baseUrl).run();
+            Path file = report.write(reportDir);
+            log.info("load test finished\n{}report = {}", report.summary(), file.toAbsolutePath());
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package study.querydsl.perf.load;
+
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * 가중치에 따라 시나리오를 고르고 요청 URL 을 만든다. 같은 seed 면 같은 순서로 요청이 나간다.
+ */
+class ScenarioPicker {
+
+    private final List<LoadTestConfig.Scenario> scenarios;
+    private final int totalWeight;
+    private final SplittableRandom random;
+
+    ScenarioPicker(List<LoadTestConfig.Scenario> scenarios, long seed) {
+        this.scenarios = scenarios;
+        this.totalWeight = scenarios.stream().mapToInt(LoadTestConfig.Scenario::weight).sum();
+        this.random = new SplittableRandom(seed);
+    }
+
+    LoadRequest next() {
+        LoadTestConfig.Scenario scenario = pick();
+        String path = scenario.path();
+        UriComponentsBuilder builder = UriComponentsBuilder.newInstance();
+
+        if (scenario.params() != null) {
+            for (Map.Entry<String, String> param : scenario.params().entrySet()) {
+                String value = sample(param.getValue());
+                String placeholder = "{" + param.getKey() + "}";
+                if (path.contains(placeholder)) {
+                    path = path.replace(placeholder, value);
+                } else {
+                    builder.queryParam(param.getKey(), value);
+                }
+            }
+        }
+
+        if (scenario.pageDepths() != null && !scenario.pageDepths().isEmpty()) {
+            builder.queryParam("page", scenario.pageDepths().get(random.nextInt(scenario.pageDepths().size())));
+        }
+        if (scenario.pageSize() != null) {
+            builder.queryParam("size", scenario.pageSize());
+        }
+
+        String query = builder.build().encode().toUriString();
+        return new LoadRequest(scenario.name(), scenario.path(), path + query);
+    }
+
+    private LoadTestConfig.Scenario pick() {
+        int point = random.nextInt(totalWeight);
+        for (LoadTestConfig.Scenario scenario : scenarios) {
+            point -= scenario.weight();
+            if (point < 0) {
+                return scenario;
+            }
+        }
+        return scenarios.get(scenarios.size() - 1);
+    }
+
+    private String sample(String spec) {
+        if (spec.contains("|")) {
+            String[] choices = spec.split("\\|");
+            return choices[random.nextInt(choices.length)];
+        }
+
+        int range = spec.indexOf("..");
+        if (range > 0) {
+            int from = Integer.parseInt(spec.substring(0, range));
+            int to = Integer.parseInt(spec.substring(range + 2));
+            return String.valueOf(random.nextInt(from, to + 1));
+        }
+
+        return spec;
+    }
+
+    record LoadRequest(String scenario, String endpoint, String pathAndQuery) {
+    }
+}
@@ -0,0 +1,121 @@
+package study.querydsl.perf.nativeimage;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * native 바이너리와 JVM(bootJar)을 같은 DB 에 붙여 띄우고
+ * 1) 세 검색 엔드포인트가 200 을 돌려주는지, 2) 첫 요청까지 걸린 시간, 3) 요청 후 RSS 를 비교한다.
+ * RSS 는 /proc/{pid}/status 의 VmRSS 를 읽으므로 Linux 에서만 나온다.
+ *
+ * ./gradlew nativeSmoke -PsmokeDbUrl=jdbc:mariadb://localhost:3306/querydsl -PsmokeDbUser=... -PsmokeDbPassword=...
+ */
+@Slf4j
+public class NativeSmokeCheck {
+
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+    private static final List<String> ENDPOINTS = List.of(
+            "/v1/members?teamName=teamA&ageGoe=10",
+            "/v2/members?ageGoe=10&page=0&size=20",
+            "/v3/members?ageGoe=10&page=1&size=20"
+    );
+
+    public static void main(String[] args) throws Exception {
+        Path binary = Path.of(args[0]);
+        Path bootJar = Path.of(args[1]);
+        List<String> appArgs = List.of(
+                "--spring.datasource.url=" + args[2],
+                "--spring.datasource.username=" + (args.length > 3 ? args[3] : ""),
+                "--spring.datasource.password=" + (args.length > 4 ? args[4] : "")
+        );
+
+        Result nativeResult = run("native", List.of(binary.toAbsolutePath().toString()), appArgs);
+        Result jvmResult = run("jvm", List.of(Path.of(System.getProperty("java.home"), "bin", "java").toString(), "-jar", bootJar.toAbsolutePath().toString()), appArgs);
+
+        log.info("native: first request {} ms, rss {} MB", nativeResult.firstRequestMs(), nativeResult.rssKb() / 1024);
+        log.info("jvm   : first request {} ms, rss {} MB", jvmResult.firstRequestMs(), jvmResult.rssKb() / 1024);
+    }
+
+    private static Result run(String name, List<String> launcher, List<String> appArgs) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>(launcher);
+        command.addAll(appArgs);
+        command.add("--server.port=" + port);
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(new File(System.getProperty("java.io.tmpdir"), "native-smoke-" + name + ".log"))
+                .start();
+        try {
+            long firstRequestMs = waitFirstResponse(client, process, port, start);
+            for (String endpoint : ENDPOINTS) {
+                HttpResponse<String> response = client.send(request(port, endpoint), HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() != 200) {
+                    throw new IllegalStateException(name + " " + endpoint + " returned " + response.statusCode() + ": " + response.body());
+                }
+                log.info("{} {} -> 200 ({} bytes)", name, endpoint, response.body().length());
+            }
+            return new Result(firstRequestMs, rssKb(process.pid()));
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static long waitFirstResponse(HttpClient client, Process process, int port, long start) throws Exception {
+        while (System.nanoTime() - start < TIMEOUT.toNanos()) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("process exited with " + process.exitValue());
+            }
+            try {
+                if (client.send(request(port, ENDPOINTS.get(0)), HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return (System.nanoTime() - start) / 1_000_000;
+                }
+            } catch (IOException notYetListening) {
+                // 아직 포트가 안 열렸다.
+            }
+            Thread.sleep(5);
+        }
+        throw new IllegalStateException("no response within " + TIMEOUT);
+    }
+
+    private static HttpRequest request(int port, String endpoint) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + endpoint)).GET().build();
+    }
+
+    private static long rssKb(long pid) throws IOException {
+        Path status = Path.of("/proc", String.valueOf(pid), "status");
+        if (!Files.exists(status)) {
+            return -1;
+        }
+        return Files.readAllLines(status).stream()
+                .filter(line -> line.startsWith("VmRSS:"))
+                .map(line -> line.replaceAll("\\D", ""))
+                .mapToLong(Long::parseLong)
+                .findFirst()
+                .orElse(-1);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private record Result(long firstRequestMs, long rssKb) {
+    }
+}
@@ -0,0 +1,119 @@
+package study.querydsl.perf.shard;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.querydsl.domain.member.dto.MemberSearchCondition;
+import study.querydsl.domain.member.repository.MemberSearchRepository;
+import study.querydsl.global.datagen.MemberDataGenerator;
+import study.querydsl.global.shard.ShardContext;
+import study.querydsl.perf.support.EmbeddedApp;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * shard 수별로 scatter-gather 검색과 teamName 으로 한 shard 에 라우팅된 검색의 지연 시간을 비교한다.
+ * 검색 캐시는 끄고(maximum-weight=0), 나이 조건을 매번 바꿔서 돌린다.
+ */
+@Slf4j
+public class ShardFanOutBench {
+
+    private static final int TEAMS = 200;
+    private static final int MEMBERS_PER_SHARD = 50_000;
+    private static final int ITERATIONS = 500;
+
+    public static void main(String[] args) {
+        for (int shards : new int[]{1, 2, 4, 8}) {
+            run(shards);
+        }
+    }
+
+    private static void run(int shardCount) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("shard.enabled", "true");
+        properties.put("shard.copy-schema-from-first", "true");
+        properties.put("search-cache.maximum-weight", "0");
+        properties.put("datagen.teams", String.valueOf(TEAMS));
+        properties.put("datagen.members", "0");
+        for (int i = 0; i < shardCount; i++) {
+            properties.put("shard.shards[" + i + "].url", "jdbc:h2:mem:fanout" + shardCount + "-" + i + ";MODE=MariaDB;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+            properties.put("shard.shards[" + i + "].username", "sa");
+        }
+
+        ConfigurableApplicationContext context = EmbeddedApp.start(false, properties);
+        try {
+            seed(context.getBean(JdbcTemplate.class), shardCount);
+            MemberSearchRepository search = context.getBean(MemberSearchRepository.class);
+
+            SplittableRandom random = new SplittableRandom(42);
+            long[] scatter = new long[ITERATIONS];
+            long[] routed = new long[ITERATIONS];
+            for (int i = 0; i < ITERATIONS; i++) {
+                MemberSearchCondition all = new MemberSearchCondition();
+                all.setAgeGoe(random.nextInt(1, 60));
+                scatter[i] = time(() -> search.searchPageComplex(all, PageRequest.of(random.nextInt(0, 5), 20)));
+
+                MemberSearchCondition oneTeam = new MemberSearchCondition();
+                oneTeam.setTeamName(MemberDataGenerator.teamName(random.nextInt(1, TEAMS + 1)));
+                oneTeam.setAgeGoe(random.nextInt(1, 60));
+                routed[i] = time(() -> search.searchPageComplex(oneTeam, PageRequest.of(0, 20)));
+            }
+
+            log.info("shards={} scatter p50={}ms p95={}ms | routed p50={}ms p95={}ms",
+                    shardCount, percentile(scatter, 0.5), percentile(scatter, 0.95),
+                    percentile(routed, 0.5), percentile(routed, 0.95));
+        } finally {
+            context.close();
+        }
+    }
+
+    /**
+     * 0번 shard 에는 데이터 생성기가 팀을 넣어 두었으므로, 나머지 shard 에 같은 순서로 팀을 넣어 id 를 맞춘다.
+     * member_id 가 겹치지 않게 shard 마다 시작 값을 다르게 준다.
+     */
+    private static void seed(JdbcTemplate jdbcTemplate, int shardCount) {
+        SplittableRandom random = new SplittableRandom(7);
+        for (int shard = 0; shard < shardCount; shard++) {
+            int current = shard;
+            ShardContext.runOn(shard, () -> {
+                LocalDateTime now = LocalDateTime.now();
+                if (current > 0) {
+                    List<Object[]> teams = new ArrayList<>();
+                    for (int rank = 1; rank <= TEAMS; rank++) {
+                        teams.add(new Object[]{MemberDataGenerator.teamName(rank), now, now});
+                    }
+                    jdbcTemplate.batchUpdate("insert into team (name, created_at, updated_at) values (?, ?, ?)", teams);
+                }
+
+                List<Object[]> members = new ArrayList<>();
+                long memberId = (long) current * MEMBERS_PER_SHARD + 1;
+                while (members.size() < MEMBERS_PER_SHARD) {
+                    long teamId = random.nextLong(1, TEAMS + 1);
+                    if (Math.floorMod(teamId, (long) shardCount) == current) {
+                        members.add(new Object[]{memberId++, "user" + random.nextInt(1, 5_000), random.nextInt(1, 90), teamId, now, now});
+                    }
+                }
+                jdbcTemplate.batchUpdate("insert into member (member_id, username, age, team_id, created_at, updated_at) values (?, ?, ?, ?, ?, ?)", members);
+            });
+        }
+    }
+
+    private static long time(Runnable action) {
+        long start = System.nanoTime();
+        action.run();
+        return System.nanoTime() - start;
+    }
+
+    private static double percentile(long[] values, double p) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[(int) Math.ceil(p * sorted.length) - 1] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,36 @@
+package study.querydsl.perf.sql;
+
+import com.querydsl.sql.codegen.MetaDataExporter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.perf.support.EmbeddedApp;
+
+import javax.sql.DataSource;
+import java.io.File;
+import java.sql.Connection;
+import java.util.Map;
+
+/**
+ * Hibernate 가 만든 스키마에서 querydsl-sql 의 S 타입을 뽑는다.
+ * 결과를 src/main/java/study/querydsl/sql 에 복사해서 쓴다. (엔티티 컬럼이 바뀌면 다시 돌린다)
+ */
+@Slf4j
+public class SqlMetadataExport {
+
+    public static void main(String[] args) throws Exception {
+        File target = new File(args.length > 0 ? args[0] : "build/generated/querydsl-sql");
+
+        ConfigurableApplicationContext context = EmbeddedApp.start(false, Map.of("datagen.members", "0", "datagen.teams", "1"));
+        try (Connection connection = context.getBean(DataSource.class).getConnection()) {
+            MetaDataExporter exporter = new MetaDataExporter();
+            exporter.setPackageName("study.querydsl.sql");
+            exporter.setNamePrefix("S");
+            exporter.setTargetFolder(target);
+            exporter.setTableNamePattern("member,team");
+            exporter.export(connection.getMetaData());
+            log.info("exported querydsl-sql metadata to {}", target.getAbsolutePath());
+        } finally {
+            context.close();
+        }
+    }
+}
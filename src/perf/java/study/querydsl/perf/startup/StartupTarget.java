@@ -0,0 +1,20 @@
+package study.querydsl.perf.startup;
+
+import study.querydsl.perf.support.EmbeddedApp;
+
+import java.util.Map;
+
+/**
+ * StartupTimeCheck 가 별도 JVM 으로 띄우는 앱. cdsArchive 학습 실행에도 쓴다.
+ * 데이터는 기동 시간에 섞이지 않게 조금만 만든다.
+ */
+public class StartupTarget {
+
+    public static void main(String[] args) {
+        EmbeddedApp.start(true, Map.of(
+                "server.port", args.length > 0 ? args[0] : "0",
+                "datagen.teams", "10",
+                "datagen.members", "1000"
+        ));
+    }
+}
@@ -0,0 +1,103 @@
+package study.querydsl.perf.startup;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 새 JVM 을 띄워서 첫 요청이 200 으로 돌아올 때까지의 시간(time-to-first-request)을 잰다.
+ * 프로세스 시작부터 재므로 JVM 기동, 클래스 로딩, 컨텍스트 refresh 가 모두 들어간다.
+ * CDS 아카이브(./gradlew cdsArchive)가 있으면 아카이브를 쓴 경우와 나란히 비교한다.
+ *
+ * ./gradlew startupTime -Pruns=10
+ */
+@Slf4j
+public class StartupTimeCheck {
+
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        Path archive = args.length > 1 ? Path.of(args[1]) : null;
+
+        report("default", measure(runs, List.of()));
+        if (archive != null && Files.exists(archive)) {
+            report("cds", measure(runs, List.of("-XX:SharedArchiveFile=" + archive.toAbsolutePath())));
+        } else {
+            log.info("no CDS archive at {}, run ./gradlew cdsArchive to compare", archive);
+        }
+    }
+
+    private static long[] measure(int runs, List<String> jvmArgs) throws Exception {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+        long[] millis = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            millis[i] = timeToFirstRequest(client, jvmArgs);
+        }
+        return millis;
+    }
+
+    private static long timeToFirstRequest(HttpClient client, List<String> jvmArgs) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(StartupTarget.class.getName());
+        command.add(String.valueOf(port));
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/v1/members?username=member1")).GET().build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(new File(System.getProperty("java.io.tmpdir"), "startup-target.log"))
+                .start();
+        try {
+            while (System.nanoTime() - start < TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("startup target exited with " + process.exitValue());
+                }
+                try {
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() == 200) {
+                        return (System.nanoTime() - start) / 1_000_000;
+                    }
+                } catch (IOException notYetListening) {
+                    // 아직 포트가 안 열렸다.
+                }
+                Thread.sleep(5);
+            }
+            throw new IllegalStateException("no response within " + TIMEOUT);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void report(String name, long[] millis) {
+        long[] sorted = millis.clone();
+        Arrays.sort(sorted);
+        log.info("{}: time-to-first-request median={}ms min={}ms max={}ms runs={}",
+                name, sorted[sorted.length / 2], sorted[0], sorted[sorted.length - 1], Arrays.toString(millis));
+    }
+}
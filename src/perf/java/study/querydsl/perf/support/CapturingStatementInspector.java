@@ -0,0 +1,44 @@
+package study.querydsl.perf.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hibernate 가 만든 SQL 을 그대로 잡아 둔다.
+ * - 마지막 SQL 로 EXPLAIN 을 돌리거나
+ * - 서로 다른 SQL 문자열 개수(= prepared statement 캐시 항목 수)를 셀 때 쓴다.
+ */
+public class CapturingStatementInspector implements StatementInspector {
+
+    /** @SpringBootTest(properties = ...) 처럼 상수가 필요한 곳에서 쓴다. */
+    public static final String PROPERTY =
+            "spring.jpa.properties.hibernate.session_factory.statement_inspector=study.querydsl.perf.support.CapturingStatementInspector";
+
+    private static final ThreadLocal<String> LAST_SQL = new ThreadLocal<>();
+    private static final Set<String> DISTINCT_SQL = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public String inspect(String sql) {
+        LAST_SQL.set(sql);
+        DISTINCT_SQL.add(sql);
+        return sql;
+    }
+
+    public static String lastSql() {
+        return LAST_SQL.get();
+    }
+
+    public static int distinctSqlCount() {
+        return DISTINCT_SQL.size();
+    }
+
+    public static void reset() {
+        DISTINCT_SQL.clear();
+    }
+
+    public static String property() {
+        return PROPERTY;
+    }
+}
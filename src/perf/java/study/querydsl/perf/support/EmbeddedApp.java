@@ -0,0 +1,39 @@
+package study.querydsl.perf.support;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.QuerydslApplication;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * perf 프로필 앱을 H2(MariaDB 모드) 위에 띄운다. 외부 DB 없이 부하 테스트/벤치마크를 돌리기 위한 것.
+ */
+public final class EmbeddedApp {
+
+    private EmbeddedApp() {
+    }
+
+    public static ConfigurableApplicationContext start(boolean web, Map<String, Object> overrides) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", "0");
+        properties.put("spring.datasource.url", "jdbc:h2:mem:perf;MODE=MariaDB;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.jpa.hibernate.ddl-auto", "create");
+        properties.put("decorator.datasource.p6spy.enable-logging", "false");
+        properties.put("datagen.teams", "200");
+        properties.put("datagen.members", "200000");
+        properties.putAll(overrides);
+
+        return new SpringApplicationBuilder(QuerydslApplication.class)
+                .profiles("perf")
+                .applicationStartup(new BufferingApplicationStartup(4096))
+                .web(web ? WebApplicationType.SERVLET : WebApplicationType.NONE)
+                .properties(properties)
+                .run();
+    }
+}
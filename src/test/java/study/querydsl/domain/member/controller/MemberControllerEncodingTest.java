@@ -0,0 +1,67 @@
+package study.querydsl.domain.member.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.domain.member.dto.MemberTeamDto;
+import study.querydsl.domain.member.entity.Member;
+import study.querydsl.domain.team.entity.Team;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class MemberControllerEncodingTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    EntityManager em;
+
+    @Test
+    public void smileAndCborPage() throws Exception {
+        Team team = new Team("EncodingTeam");
+        em.persist(team);
+        em.persist(new Member("encoding1", 10, team));
+        em.persist(new Member("encoding2", 20, team));
+        em.flush();
+
+        assertPage(MediaType.valueOf("application/x-jackson-smile"), new SmileMapper());
+        assertPage(MediaType.valueOf("application/cbor"), new CBORMapper());
+    }
+
+    @Test
+    public void jsonStaysDefault() throws Exception {
+        mockMvc.perform(get("/v3/members").param("teamName", "EncodingTeam").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    private void assertPage(MediaType mediaType, ObjectMapper mapper) throws Exception {
+        byte[] body = mockMvc.perform(get("/v3/members").param("teamName", "EncodingTeam").param("sort", "age").accept(mediaType))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(mediaType))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode page = mapper.readTree(body);
+        assertThat(page.get("totalElements").asLong()).isEqualTo(2);
+
+        MemberTeamDto first = mapper.treeToValue(page.get("content").get(0), MemberTeamDto.class);
+        assertThat(first.getUsername()).isEqualTo("encoding1");
+        assertThat(first.getTeamName()).isEqualTo("EncodingTeam");
+    }
+}
@@ -0,0 +1,73 @@
+package study.querydsl.domain.member.entity;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.ManagedEntity;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.domain.team.entity.Team;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 바이트코드 향상을 켠 뒤에도 엔티티 동작이 같은지 확인한다.
+ */
+@SpringBootTest
+@Transactional
+class MemberEntityTest {
+
+    @Autowired
+    EntityManager em;
+
+    /**
+     * -PnoEnhancement 로 끄고 돌리면 건너뛴다. (IDE 처럼 property 가 없으면 켜진 것으로 본다)
+     */
+    @Test
+    public void enhanced() {
+        assumeTrue(Boolean.parseBoolean(System.getProperty("entities.enhanced", "true")), "bytecode enhancement is off");
+        assertThat(ManagedEntity.class).isAssignableFrom(Member.class);
+        assertThat(ManagedEntity.class).isAssignableFrom(Team.class);
+    }
+
+    @Test
+    public void teamMembersHaveNoDuplicates() {
+        Team teamA = new Team("TeamA");
+        Member member1 = new Member("member1", 10, teamA);
+        Member member2 = new Member("member2", 20, teamA);
+
+        assertThat(teamA.getMembers()).containsExactly(member1, member2);
+    }
+
+    @Test
+    public void lazyTeamAndDirtyChecking() {
+        Team teamA = new Team("TeamA");
+        em.persist(teamA);
+        Member member = new Member("member1", 10, teamA);
+        em.persist(member);
+        em.flush();
+        em.clear();
+
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        long updatesBefore = statistics.getEntityUpdateCount();
+
+        // team 은 여전히 지연 로딩이다.
+        Member found = em.find(Member.class, member.getId());
+        assertThat(Hibernate.isInitialized(found.getTeam())).isFalse();
+        assertThat(found.getTeam().getName()).isEqualTo("TeamA");
+
+        // 바뀐 것이 없으면 update 가 나가지 않고, 바꾸면 한 번만 나간다.
+        em.flush();
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(updatesBefore);
+
+        found.changeAge(11);
+        em.flush();
+        em.clear();
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(updatesBefore + 1);
+        assertThat(em.find(Member.class, member.getId()).getAge()).isEqualTo(11);
+    }
+}
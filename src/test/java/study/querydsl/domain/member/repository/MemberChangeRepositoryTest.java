@@ -0,0 +1,106 @@
+package study.querydsl.domain.member.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.domain.member.dto.MemberChangeDto;
+import study.querydsl.domain.member.dto.MemberChangesDto;
+import study.querydsl.domain.member.entity.Member;
+import study.querydsl.domain.team.entity.Team;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * 방금 쓴 row 도 바로 보이도록 settle-delay 를 없앤다.
+ * updated_at 이 앞선 row 와 겹치지 않도록 변경 사이에 잠깐 쉰다.
+ */
+@SpringBootTest(properties = "member.changes.settle-delay=PT0S")
+@Transactional
+class MemberChangeRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberChangeRepository memberChangeRepository;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Test
+    public void keysetPagesTest() {
+        Team teamA = new Team("TeamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30));
+        em.flush();
+
+        MemberChangesDto first = memberChangeRepository.findChanges(null, 2);
+        MemberChangesDto second = memberChangeRepository.findChanges(first.getNextCursor(), 2);
+        MemberChangesDto empty = memberChangeRepository.findChanges(second.getNextCursor(), 2);
+
+        assertThat(first.isHasMore()).isTrue();
+        assertThat(second.isHasMore()).isFalse();
+
+        List<MemberChangeDto> all = new ArrayList<>(first.getChanges());
+        all.addAll(second.getChanges());
+        assertThat(all).extracting("username").containsExactly("member1", "member2", "member3");
+        assertThat(all).allSatisfy(change -> assertThat(change.getUpdatedAt()).isNotNull());
+
+        // 바뀐 것이 없으면 cursor 는 그대로다.
+        assertThat(empty.getChanges()).isEmpty();
+        assertThat(empty.getNextCursor()).isEqualTo(second.getNextCursor());
+    }
+
+    @Test
+    public void softDeleteTombstoneTest() throws Exception {
+        Member member1 = new Member("member1", 10);
+        em.persist(member1);
+        em.persist(new Member("member2", 20));
+        em.flush();
+        String cursor = memberChangeRepository.findChanges(null, 10).getNextCursor();
+
+        Thread.sleep(5);
+        member1.delete();
+        em.flush();
+        em.clear();
+
+        // 엔티티 조회에서는 사라지고, 변경분에는 tombstone 으로 나온다.
+        assertThat(memberJpaRepository.findById(member1.getId())).isEmpty();
+        assertThat(memberChangeRepository.findChanges(cursor, 10).getChanges())
+                .extracting("memberId", "deleted")
+                .containsExactly(tuple(member1.getId(), true));
+    }
+
+    @Test
+    public void bulkUpdateBumpsUpdatedAtTest() throws Exception {
+        em.persist(new Member("member1", 10));
+        em.persist(new Member("member2", 20));
+        em.flush();
+        String cursor = memberChangeRepository.findChanges(null, 10).getNextCursor();
+
+        Thread.sleep(5);
+        memberRepository.bulkAgePlus(15);
+
+        assertThat(memberChangeRepository.findChanges(cursor, 10).getChanges())
+                .extracting("username", "age")
+                .containsExactly(tuple("member2", 21));
+    }
+
+    @Test
+    public void invalidCursorTest() {
+        assertThatThrownBy(() -> memberChangeRepository.findChanges("@@", 10))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+}
@@ -3,6 +3,8 @@ package study.querydsl.domain.member.repository;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
 import org.assertj.core.api.Assertions;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,6 +16,7 @@ import study.querydsl.domain.member.dto.MemberTeamDto;
 import study.querydsl.domain.member.entity.Member;
 import study.querydsl.domain.team.entity.Team;
 
+import java.util.Arrays;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.*;
@@ -44,6 +47,21 @@ class MemberJpaRepositoryTest {
         assertThat(result2).containsExactly(member);
     }
 
+    @Test
+    public void saveByValuesTest() {
+        Team teamA = new Team("TeamA");
+        em.persist(teamA);
+
+        // write-behind 가 꺼져 있으면 바로 insert 하고 완료된 future 를 돌려준다.
+        Long memberId = memberJpaRepository.save("member1", 10, teamA.getId()).join();
+        em.flush();
+        em.clear();
+
+        Member findMember = memberJpaRepository.findById(memberId).get();
+        assertThat(findMember.getUsername()).isEqualTo("member1");
+        assertThat(findMember.getTeam().getId()).isEqualTo(teamA.getId());
+    }
+
     @Test
     public void searchTest() {
         Team teamA = new Team("TeamA");
@@ -120,4 +138,53 @@ class MemberJpaRepositoryTest {
         assertThat(memberTeamDtos).extracting("username").containsExactly("member3", "member4");
     }
 
-}
\ No newline at end of file
+
+    @Test
+    public void findAllByIdsTest() {
+        Team teamA = new Team("TeamA");
+        em.persist(teamA);
+
+        Member member1 = new Member("member1", 10, teamA);
+        Member member2 = new Member("member2", 20, teamA);
+        Member member3 = new Member("member3", 30, teamA);
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.flush();
+        em.clear();
+
+        Member managed = memberJpaRepository.findById(member2.getId()).get();
+
+        // 중복, 없는 id, null 이 섞여 있어도 입력 순서대로 한 번씩만 돌려준다.
+        List<Member> result = memberJpaRepository.findAllByIds(
+                Arrays.asList(member3.getId(), member1.getId(), member3.getId(), -1L, null, member2.getId()), true);
+
+        assertThat(result).extracting("username").containsExactly("member3", "member1", "member2");
+        assertThat(result.get(0).getTeam()).matches(Hibernate::isInitialized);
+        assertThat(result.get(2)).isSameAs(managed);
+    }
+
+    @Test
+    public void readOnlyQueryTest() {
+        Member member1 = new Member("member1", 10);
+        Member member2 = new Member("member2", 20);
+        em.persist(member1);
+        em.persist(member2);
+        em.flush();
+        em.clear();
+
+        Session session = em.unwrap(Session.class);
+
+        // 새로 로딩한 엔티티는 스냅샷 없이 읽기 전용으로 들어온다.
+        List<Member> result = memberJpaRepository.findAll();
+        assertThat(result).hasSize(2).allMatch(session::isReadOnly);
+        em.clear();
+
+        // 이미 관리 중인 엔티티는 그대로 돌려주고 읽기 전용으로 바꾸지 않는다.
+        Member managed = memberJpaRepository.findById(member1.getId()).get();
+        List<Member> byUsername = memberJpaRepository.findByUsername_QueryDsl("member1");
+        assertThat(byUsername).containsExactly(managed);
+        assertThat(session.isReadOnly(managed)).isFalse();
+    }
+
+}
@@ -6,17 +6,24 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.domain.member.dto.FacetCountDto;
+import study.querydsl.domain.member.dto.MemberFacetsDto;
 import study.querydsl.domain.member.dto.MemberSearchCondition;
 import study.querydsl.domain.member.dto.MemberTeamDto;
 import study.querydsl.domain.member.entity.Member;
 import study.querydsl.domain.team.entity.Team;
+import study.querydsl.perf.support.CapturingStatementInspector;
 
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static study.querydsl.domain.member.entity.QMember.member;
 
-@SpringBootTest
+@SpringBootTest(properties = CapturingStatementInspector.PROPERTY)
 @Transactional
 class MemberRepositoryTest {
 
@@ -90,4 +97,160 @@ class MemberRepositoryTest {
         assertThat(result.getSize()).isEqualTo(3);
         assertThat(result.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void searchComplexSortTest() {
+        Team teamA = new Team("TeamA");
+        em.persist(teamA);
+
+        em.persist(new Member("member1", 20, teamA));
+        em.persist(new Member("member2", 40, teamA));
+        em.persist(new Member("member3", 20, teamA));
+        em.persist(new Member("member4", 30, teamA));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        PageRequest page = PageRequest.of(0, 4, Sort.by(Sort.Direction.DESC, "age"));
+        Page<MemberTeamDto> result = memberRepository.searchPageComplex(condition, page);
+
+        // 같은 나이는 마지막 정렬 키(age DESC)와 같은 방향으로 member_id 역순이 된다.
+        assertThat(result.getContent()).extracting("username")
+                .containsExactly("member2", "member4", "member3", "member1");
+    }
+
+    @Test
+    public void sortTiebreakerFollowsLastDirection() {
+        assertThat(MemberSortOrders.of(Sort.by(Sort.Direction.DESC, "age")))
+                .containsExactly(member.age.desc(), member.id.desc());
+        assertThat(MemberSortOrders.of(Sort.by(Sort.Order.desc("age"), Sort.Order.asc("username"))))
+                .containsExactly(member.age.desc(), member.username.asc(), member.id.asc());
+        assertThat(MemberSortOrders.of(Sort.unsorted()))
+                .containsExactly(member.id.asc());
+
+        MemberTeamDto older = new MemberTeamDto(1L, "a", 30, null, null);
+        MemberTeamDto sameAgeLaterId = new MemberTeamDto(2L, "b", 30, null, null);
+        assertThat(List.of(older, sameAgeLaterId).stream().sorted(MemberSortOrders.comparator(Sort.by(Sort.Direction.DESC, "age"))))
+                .containsExactly(sameAgeLaterId, older);
+    }
+
+    @Test
+    public void unsupportedSortTest() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        PageRequest page = PageRequest.of(0, 3, Sort.by("teamName"));
+
+        assertThatThrownBy(() -> memberRepository.searchPageSimple(condition, page))
+                .isInstanceOf(UnsupportedSortException.class);
+    }
+
+    @Test
+    public void searchFieldsTest() {
+        Team teamA = new Team("TeamA");
+        em.persist(teamA);
+
+        Member member1 = new Member("member1", 10, teamA);
+        Member member2 = new Member("member2", 20);
+        em.persist(member1);
+        em.persist(member2);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        PageRequest page = PageRequest.of(0, 10);
+        Page<Map<String, Object>> result = memberRepository.searchPageFields(condition, MemberField.parse("username,teamId"), page);
+
+        assertThat(result.getTotalElements()).isEqualTo(2);
+        assertThat(result.getContent().get(0)).containsOnlyKeys("username", "teamId");
+        assertThat(result.getContent().get(0)).containsEntry("teamId", teamA.getId());
+        assertThat(result.getContent().get(1)).containsEntry("username", "member2");
+        assertThat(CapturingStatementInspector.lastSql()).contains(" join team ");
+
+        // team 컬럼도 teamName 조건도 없으면 team 을 조인하지 않는다.
+        Page<Map<String, Object>> pruned = memberRepository.searchPageFields(condition, MemberField.parse("username,age"), page);
+
+        assertThat(pruned.getContent()).extracting(row -> row.get("username")).containsExactly("member1", "member2");
+        assertThat(CapturingStatementInspector.lastSql()).doesNotContain("join");
+    }
+
+    @Test
+    public void unsupportedFieldTest() {
+        assertThatThrownBy(() -> MemberField.parse("username,password"))
+                .isInstanceOf(UnsupportedFieldException.class);
+    }
+
+    @Test
+    public void searchCountTest() {
+        Team teamA = new Team("TeamA");
+        Team teamB = new Team("TeamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40));
+
+        MemberSearchCondition all = new MemberSearchCondition();
+        assertThat(memberRepository.searchCount(all)).isEqualTo(4);
+
+        MemberSearchCondition teamACondition = new MemberSearchCondition();
+        teamACondition.setTeamName("TeamA");
+        teamACondition.setAgeGoe(15);
+        assertThat(memberRepository.searchCount(teamACondition)).isEqualTo(1);
+
+        // 팀 없는 멤버도 조인 없이 세어져야 한다.
+        MemberSearchCondition ageCondition = new MemberSearchCondition();
+        ageCondition.setAgeGoe(25);
+        assertThat(memberRepository.searchCount(ageCondition)).isEqualTo(2);
+    }
+
+    @Test
+    public void facetsTest() {
+        Team teamA = new Team("TeamA");
+        Team teamB = new Team("TeamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 12, teamA));
+        em.persist(new Member("member2", 18, teamA));
+        em.persist(new Member("member3", 25, teamA));
+        em.persist(new Member("member4", 31, teamB));
+        em.persist(new Member("member5", 75));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(15);
+
+        MemberFacetsDto result = memberRepository.searchFacets(condition, PageRequest.of(0, 2, Sort.by("age")));
+
+        assertThat(result.getPage().getTotalElements()).isEqualTo(4);
+        assertThat(result.getPage().getContent()).extracting("username").containsExactly("member2", "member3");
+        assertThat(result.getTeams()).containsExactly(
+                new FacetCountDto("TeamA", 2),
+                new FacetCountDto("TeamB", 1),
+                new FacetCountDto(null, 1));
+        assertThat(result.getAgeBuckets()).containsExactly(
+                new FacetCountDto("10-19", 1),
+                new FacetCountDto("20-29", 1),
+                new FacetCountDto("30-39", 1),
+                new FacetCountDto("60+", 1));
+
+        // total 을 넘는 페이지는 content 쿼리 없이 facet 만 돌려준다.
+        MemberFacetsDto beyond = memberRepository.searchFacets(condition, PageRequest.of(5, 2));
+        assertThat(beyond.getPage().getContent()).isEmpty();
+        assertThat(beyond.getPage().getTotalElements()).isEqualTo(4);
+    }
+
+    @Test
+    public void deleteLeavesTombstoneTest() {
+        Member member1 = memberRepository.save(new Member("member1", 10));
+        Member member2 = memberRepository.save(new Member("member2", 20));
+        Member member3 = memberRepository.save(new Member("member3", 30));
+
+        // JpaRepository 의 delete 들은 row 를 지우지 않고 deleted = true 로 남긴다.
+        memberRepository.delete(member1);
+        memberRepository.deleteAllByIdInBatch(List.of(member2.getId()));
+        em.flush();
+        em.clear();
+
+        assertThat(memberRepository.findAll()).extracting("username").containsExactly("member3");
+        Object tombstones = em.createNativeQuery("select count(*) from member where deleted = true").getSingleResult();
+        assertThat(((Number) tombstones).longValue()).isEqualTo(2);
+        assertThat(memberRepository.findById(member3.getId())).isPresent();
+    }
+}
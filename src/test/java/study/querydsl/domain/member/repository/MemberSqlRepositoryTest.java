@@ -0,0 +1,133 @@
+package study.querydsl.domain.member.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.domain.member.dto.FacetCountDto;
+import study.querydsl.domain.member.dto.MemberFacetsDto;
+import study.querydsl.domain.member.dto.MemberSearchCondition;
+import study.querydsl.domain.member.dto.MemberTeamDto;
+import study.querydsl.domain.member.entity.Member;
+import study.querydsl.domain.team.entity.Team;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * querydsl-sql 구현이 JPA 구현과 같은 결과를 내는지 확인한다.
+ * 검색 캐시는 켜 둔다. 두 구현은 캐시 키가 달라서 서로의 결과를 돌려받지 않는다.
+ */
+@SpringBootTest(properties = "member.search.engine=sql")
+@Transactional
+class MemberSqlRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberSqlRepository memberSqlRepository;
+
+    @Autowired
+    MemberSearchRepository memberSearchRepository;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("TeamA");
+        Team teamB = new Team("TeamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.persist(new Member("member5", 20));
+        // SQL 은 영속성 컨텍스트를 거치지 않으므로 먼저 DB 에 내려 둔다.
+        em.flush();
+    }
+
+    @Test
+    public void engineSwitchTest() {
+        assertThat(memberSearchRepository).isSameAs(memberSqlRepository);
+    }
+
+    @Test
+    public void searchTest() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(35);
+        condition.setAgeLoe(45);
+        condition.setTeamName("TeamB");
+
+        assertThat(memberSqlRepository.search(condition))
+                .extracting("username")
+                .containsExactly("member4");
+        assertThat(memberSqlRepository.search(new MemberSearchCondition()))
+                .containsExactlyInAnyOrderElementsOf(memberRepository.search(new MemberSearchCondition()));
+    }
+
+    @Test
+    public void searchPageComplexTest() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+        PageRequest pageRequest = PageRequest.of(0, 2, Sort.by(Sort.Order.desc("age"), Sort.Order.asc("username")));
+
+        Page<MemberTeamDto> sql = memberSqlRepository.searchPageComplex(condition, pageRequest);
+        Page<MemberTeamDto> jpa = memberRepository.searchPageComplex(condition, pageRequest);
+
+        assertThat(sql.getContent()).extracting("username").containsExactly("member4", "member3");
+        assertThat(jpa).isNotSameAs(sql);
+        assertThat(sql.getContent()).isEqualTo(jpa.getContent());
+        assertThat(sql.getTotalElements()).isEqualTo(4);
+    }
+
+    @Test
+    public void teamNameCountTest() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("TeamA");
+
+        Page<MemberTeamDto> result = memberSqlRepository.searchPageComplex(condition, PageRequest.of(0, 1));
+
+        assertThat(result.getContent()).extracting("teamName").containsExactly("TeamA");
+        assertThat(result.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    public void facetsTest() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(15);
+        PageRequest pageRequest = PageRequest.of(0, 2, Sort.by("age"));
+
+        MemberFacetsDto sql = memberSqlRepository.searchFacets(condition, pageRequest);
+        MemberFacetsDto jpa = memberRepository.searchFacets(condition, pageRequest);
+
+        assertThat(sql.getPage().getTotalElements()).isEqualTo(4);
+        assertThat(sql.getTeams()).containsExactly(
+                new FacetCountDto("TeamB", 2),
+                new FacetCountDto("TeamA", 1),
+                new FacetCountDto(null, 1));
+        assertThat(sql.getAgeBuckets()).containsExactly(
+                new FacetCountDto("20-29", 2),
+                new FacetCountDto("30-39", 1),
+                new FacetCountDto("40-49", 1));
+        assertThat(sql.getPage().getContent()).isEqualTo(jpa.getPage().getContent());
+        assertThat(sql.getTeams()).isEqualTo(jpa.getTeams());
+        assertThat(sql.getAgeBuckets()).isEqualTo(jpa.getAgeBuckets());
+    }
+
+    @Test
+    public void unsupportedSortTest() {
+        PageRequest pageRequest = PageRequest.of(0, 2, Sort.by("teamName"));
+
+        assertThatThrownBy(() -> memberSqlRepository.searchPageComplex(new MemberSearchCondition(), pageRequest))
+                .isInstanceOf(UnsupportedSortException.class);
+    }
+}
@@ -0,0 +1,164 @@
+package study.querydsl.domain.member.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.domain.member.dto.FacetCountDto;
+import study.querydsl.domain.member.dto.MemberFacetsDto;
+import study.querydsl.domain.member.dto.MemberSearchCondition;
+import study.querydsl.domain.member.dto.MemberTeamDto;
+import study.querydsl.domain.member.entity.Member;
+import study.querydsl.domain.team.entity.Team;
+import study.querydsl.global.shard.ShardContext;
+import study.querydsl.global.shard.ShardNotSelectedException;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * H2 두 개를 shard 로 띄워서 scatter-gather 를 확인한다.
+ * team 은 두 shard 에 같은 순서로 넣어서 id 를 맞추고(TeamA=1 -> shard 1, TeamB=2 -> shard 0), member 는 팀의 shard 에 넣는다.
+ */
+@SpringBootTest(properties = {
+        "spring.profiles.active=shard-test",
+        "shard.enabled=true",
+        "shard.copy-schema-from-first=true",
+        "shard.shards[0].url=jdbc:h2:mem:shardtest0;MODE=MariaDB;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "shard.shards[0].username=sa",
+        "shard.shards[1].url=jdbc:h2:mem:shardtest1;MODE=MariaDB;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "shard.shards[1].username=sa",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create"
+})
+class ShardedMemberSearchTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    MemberSearchRepository memberSearchRepository;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @BeforeEach
+    public void before() {
+        for (int shard = 0; shard < 2; shard++) {
+            int current = shard;
+            ShardContext.runOn(shard, () -> transactionTemplate.executeWithoutResult(status -> {
+                em.createQuery("delete from Member").executeUpdate();
+                em.createQuery("delete from Team").executeUpdate();
+                em.createNativeQuery("alter table team alter column team_id restart with 1").executeUpdate();
+
+                Team teamA = new Team("TeamA");
+                Team teamB = new Team("TeamB");
+                em.persist(teamA);
+                em.persist(teamB);
+
+                if (current == 1) {
+                    em.persist(new Member("member1", 10, teamA));
+                    em.persist(new Member("member2", 20, teamA));
+                } else {
+                    em.persist(new Member("member3", 30, teamB));
+                    em.persist(new Member("member4", 40, teamB));
+                    em.persist(new Member("member5", 50));
+                }
+            }));
+        }
+    }
+
+    @Test
+    public void scatterGatherPage() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        Sort byAgeDesc = Sort.by(Sort.Direction.DESC, "age");
+
+        Page<MemberTeamDto> first = memberSearchRepository.searchPageComplex(condition, PageRequest.of(0, 3, byAgeDesc));
+        assertThat(first.getContent()).extracting("username").containsExactly("member5", "member4", "member3");
+        assertThat(first.getTotalElements()).isEqualTo(5);
+
+        Page<MemberTeamDto> second = memberSearchRepository.searchPageComplex(condition, PageRequest.of(1, 3, byAgeDesc));
+        assertThat(second.getContent()).extracting("username").containsExactly("member2", "member1");
+    }
+
+    @Test
+    public void routeToSingleShardByTeamName() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("TeamA");
+
+        Page<MemberTeamDto> result = memberSearchRepository.searchPageComplex(condition, PageRequest.of(0, 10));
+        assertThat(result.getContent()).extracting("username").containsExactly("member1", "member2");
+        assertThat(result.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    public void facetsMergedAcrossShards() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+
+        MemberFacetsDto result = memberSearchRepository.searchFacets(condition, PageRequest.of(1, 2, Sort.by("age")));
+
+        assertThat(result.getPage().getContent()).extracting("username").containsExactly("member4", "member5");
+        assertThat(result.getPage().getTotalElements()).isEqualTo(4);
+        assertThat(result.getTeams()).containsExactly(
+                new FacetCountDto("TeamB", 2),
+                new FacetCountDto("TeamA", 1),
+                new FacetCountDto(null, 1));
+        assertThat(result.getAgeBuckets()).containsExactly(
+                new FacetCountDto("20-29", 1),
+                new FacetCountDto("30-39", 1),
+                new FacetCountDto("40-49", 1),
+                new FacetCountDto("50-59", 1));
+    }
+
+    @Test
+    public void saveRoutesByTeam() {
+        Team teamA = teamOnShard(1, "TeamA");
+        Team teamB = teamOnShard(0, "TeamB");
+
+        Member inTeamA = new Member("saved1", 60, teamA);
+        Member inTeamB = new Member("saved2", 70, teamB);
+        memberJpaRepository.save(inTeamA);
+        memberJpaRepository.save(inTeamB);
+
+        assertThat(usernamesOn(1)).contains("saved1").doesNotContain("saved2");
+        assertThat(usernamesOn(0)).contains("saved2").doesNotContain("saved1");
+
+        // member_id 만으로는 shard 를 모르므로 모든 shard 에서 찾는다.
+        assertThat(memberJpaRepository.findById(inTeamA.getId())).map(Member::getUsername).contains("saved1");
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(60);
+        assertThat(memberSearchRepository.search(condition)).extracting("username").containsExactlyInAnyOrder("saved1", "saved2");
+    }
+
+    @Test
+    public void unroutedAccessIsRejected() {
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> em.find(Member.class, 1L)))
+                .hasRootCauseInstanceOf(ShardNotSelectedException.class);
+    }
+
+    private Team teamOnShard(int shard, String name) {
+        // members 를 초기화해 두어야 detached 상태에서 new Member(..., team) 이 지연 로딩을 건드리지 않는다.
+        return ShardContext.callOn(shard, () -> transactionTemplate.execute(status -> em
+                .createQuery("select t from Team t left join fetch t.members where t.name = :name", Team.class)
+                .setParameter("name", name)
+                .getSingleResult()));
+    }
+
+    private List<String> usernamesOn(int shard) {
+        return ShardContext.callOn(shard, () -> transactionTemplate.execute(status -> em
+                .createQuery("select m.username from Member m", String.class)
+                .getResultList()));
+    }
+}
@@ -0,0 +1,88 @@
+package study.querydsl.domain.team.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.domain.member.entity.Member;
+import study.querydsl.domain.team.dto.TeamMemberRankDto;
+import study.querydsl.domain.team.entity.Team;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+@Transactional
+class TeamMemberRankRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TeamMemberRankRepository teamMemberRankRepository;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("TeamA");
+        Team teamB = new Team("TeamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamA));
+        em.persist(new Member("member4", 40, teamB));
+        em.persist(new Member("member5", 40, teamB));
+        em.persist(new Member("member6", 50, teamB));
+        em.persist(new Member("member7", 60));
+        // 파생 테이블 쿼리는 querydsl-sql 로 돌아서 영속성 컨텍스트를 거치지 않는다.
+        em.flush();
+    }
+
+    @Test
+    public void topOldestPerTeamTest() {
+        List<TeamMemberRankDto> result = teamMemberRankRepository.topOldestPerTeam(2);
+
+        // 동점(40)은 member_id 가 작은 member4 가 앞선다. 팀이 없는 member7 은 빠진다.
+        assertThat(result)
+                .extracting("teamName", "username", "rank")
+                .containsExactly(
+                        tuple("TeamA", "member3", 1L),
+                        tuple("TeamA", "member2", 2L),
+                        tuple("TeamB", "member6", 1L),
+                        tuple("TeamB", "member4", 2L));
+        assertThat(result.get(0).getTeamAverageAge()).isEqualTo(20.0);
+        assertThat(result.get(2).getTeamAverageAge()).isCloseTo(43.33, offset(0.01));
+    }
+
+    @Test
+    public void windowAndSubqueryAgreeTest() {
+        // 평균은 DB 의 소수 자릿수가 달라 순서와 순위만 비교한다.
+        for (int limit = 1; limit <= 4; limit++) {
+            List<TeamMemberRankDto> subquery = teamMemberRankRepository.topOldestPerTeamSubquery(limit);
+
+            assertThat(teamMemberRankRepository.topOldestPerTeam(limit))
+                    .extracting("memberId", "rank")
+                    .containsExactlyElementsOf(subquery.stream().map(dto -> tuple(dto.getMemberId(), dto.getRank())).toList());
+        }
+    }
+
+    @Test
+    public void rankInTeamTest() {
+        List<TeamMemberRankDto> result = teamMemberRankRepository.rankInTeam("TeamB");
+
+        // RANK 는 동점에 같은 순위를 주고 다음 순위를 건너뛴다.
+        assertThat(result)
+                .extracting("username", "rank")
+                .containsExactly(
+                        tuple("member6", 1L),
+                        tuple("member4", 2L),
+                        tuple("member5", 2L));
+        assertThat(result).allSatisfy(dto -> assertThat(dto.getTeamAverageAge()).isCloseTo(43.33, offset(0.01)));
+    }
+}
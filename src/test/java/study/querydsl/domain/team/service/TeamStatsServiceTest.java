@@ -0,0 +1,123 @@
+package study.querydsl.domain.team.service;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.domain.member.entity.Member;
+import study.querydsl.domain.team.dto.TeamStatsDto;
+import study.querydsl.domain.team.entity.Team;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 집계는 커밋 후에 반영되므로 @Transactional 없이 직접 커밋하고 정리한다.
+ */
+@SpringBootTest
+class TeamStatsServiceTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    TeamStatsService teamStatsService;
+
+    @AfterEach
+    public void cleanUp() {
+        // JPQL 벌크 delete 에도 @SQLRestriction(deleted = false) 이 붙어서 tombstone 이 남고 team 삭제가 FK 에 걸리므로 SQL 로 지운다.
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createNativeQuery("delete from member").executeUpdate();
+            em.createNativeQuery("delete from team").executeUpdate();
+        });
+        teamStatsService.reconcileAfterCommit();
+        teamStatsService.awaitPending();
+    }
+
+    @Test
+    public void incrementalStats() {
+        Team team = transactionTemplate.execute(status -> {
+            Team teamA = new Team("TeamA");
+            em.persist(teamA);
+            em.persist(new Member("member1", 10, teamA));
+            em.persist(new Member("member2", 20, teamA));
+            em.persist(new Member("member3", 30, teamA));
+            return teamA;
+        });
+        teamStatsService.awaitPending();
+
+        TeamStatsDto stats = teamStatsService.find(team.getId()).get();
+        assertThat(stats.getMemberCount()).isEqualTo(3);
+        assertThat(stats.getAgeSum()).isEqualTo(60);
+        assertThat(stats.getMinAge()).isEqualTo(10);
+        assertThat(stats.getMaxAge()).isEqualTo(30);
+
+        // 최소 나이 멤버가 빠지면 그 팀만 다시 집계한다.
+        transactionTemplate.executeWithoutResult(status -> {
+            Member youngest = em.createQuery("select m from Member m where m.age = 10", Member.class).getSingleResult();
+            youngest.delete();
+        });
+        teamStatsService.awaitPending();
+
+        stats = teamStatsService.find(team.getId()).get();
+        assertThat(stats.getMemberCount()).isEqualTo(2);
+        assertThat(stats.getMinAge()).isEqualTo(20);
+        assertThat(teamStatsService.reconcile()).isZero();
+    }
+
+    @Test
+    public void reconcileQueuedBeforeCommitDoesNotDoubleCount() throws Exception {
+        Team team = transactionTemplate.execute(status -> {
+            Team teamA = new Team("TeamA");
+            em.persist(teamA);
+            return teamA;
+        });
+        teamStatsService.awaitPending();
+
+        // applier 를 잠시 세워 두고, 커밋 전에 reconcile 을 넣는다. reconcile 은 커밋 뒤에 돌아서 새 member 를 이미 센다.
+        CountDownLatch release = new CountDownLatch(1);
+        teamStatsService.enqueue(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            em.persist(new Member("member1", 10, em.find(Team.class, team.getId())));
+            em.flush();
+            teamStatsService.scheduledReconcile();
+        });
+        release.countDown();
+        teamStatsService.awaitPending();
+
+        TeamStatsDto stats = teamStatsService.find(team.getId()).get();
+        assertThat(stats.getMemberCount()).isEqualTo(1);
+        assertThat(stats.getAgeSum()).isEqualTo(10);
+        assertThat(teamStatsService.reconcile()).isZero();
+    }
+
+    @Test
+    public void rolledBackChangesAreIgnored() {
+        Team team = transactionTemplate.execute(status -> {
+            Team teamA = new Team("TeamA");
+            em.persist(teamA);
+            em.persist(new Member("member1", 10, teamA));
+            return teamA;
+        });
+
+        transactionTemplate.executeWithoutResult(status -> {
+            em.persist(new Member("member2", 50, em.find(Team.class, team.getId())));
+            status.setRollbackOnly();
+        });
+        teamStatsService.awaitPending();
+
+        assertThat(teamStatsService.find(team.getId()).get().getMemberCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,134 @@
+package study.querydsl.global.accumulator;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.domain.member.entity.Member;
+import study.querydsl.domain.team.dto.TeamStatsDto;
+import study.querydsl.domain.team.entity.Team;
+import study.querydsl.domain.team.service.TeamStatsService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 주기 flush 가 끼어들지 않도록 주기를 길게 두고 직접 flush 한다.
+ */
+@SpringBootTest(properties = "age-accumulator.flush-interval=PT1H")
+class MemberAgeAccumulatorTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    MemberAgeAccumulator accumulator;
+
+    @Autowired
+    TeamStatsService teamStatsService;
+
+    @AfterEach
+    public void cleanUp() {
+        accumulator.flush();
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+        teamStatsService.reconcileAfterCommit();
+        teamStatsService.awaitPending();
+    }
+
+    @Test
+    public void concurrentIncrementsAreFlushedOnce() throws Exception {
+        List<Long> ids = transactionTemplate.execute(status -> {
+            List<Long> saved = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                Member member = new Member("hot" + i, 10);
+                em.persist(member);
+                saved.add(member.getId());
+            }
+            return saved;
+        });
+
+        // hot0 에 몰아서, hot1 은 조금, hot2 는 그대로
+        int threads = 8;
+        int perThread = 1000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        accumulator.increment(ids.get(0));
+                    }
+                    accumulator.add(ids.get(1), 2);
+                }, executor));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(accumulator.pendingDelta(ids.get(0))).isEqualTo(threads * perThread);
+        assertThat(ageOf(ids.get(0))).isEqualTo(10);
+
+        assertThat(accumulator.flush()).isEqualTo(2);
+
+        assertThat(ageOf(ids.get(0))).isEqualTo(10 + threads * perThread);
+        assertThat(ageOf(ids.get(1))).isEqualTo(10 + threads * 2);
+        assertThat(ageOf(ids.get(2))).isEqualTo(10);
+        assertThat(accumulator.pendingMembers()).isZero();
+        assertThat(accumulator.flush()).isZero();
+    }
+
+    @Test
+    public void teamStatsFollowFlushedAges() {
+        Team team = new Team("AgeTeam");
+        List<Long> ids = transactionTemplate.execute(status -> {
+            em.persist(team);
+            List<Long> saved = new ArrayList<>();
+            for (int age : new int[]{10, 20, 30}) {
+                Member member = new Member("aged" + age, age, team);
+                em.persist(member);
+                saved.add(member.getId());
+            }
+            return saved;
+        });
+        teamStatsService.awaitPending();
+
+        // 최소/최대가 아닌 멤버만 바뀌면 나이 합만 델타로 더한다.
+        accumulator.add(ids.get(1), 5);
+        accumulator.flush();
+        teamStatsService.awaitPending();
+        assertStats(team.getId(), 65, 10, 30);
+
+        // 최대였던 멤버가 바뀌면 그 팀만 다시 집계한다.
+        accumulator.add(ids.get(2), -25);
+        accumulator.flush();
+        teamStatsService.awaitPending();
+        assertStats(team.getId(), 40, 5, 25);
+    }
+
+    private void assertStats(Long teamId, long ageSum, int minAge, int maxAge) {
+        TeamStatsDto stats = teamStatsService.find(teamId).orElseThrow();
+        assertThat(stats.getMemberCount()).isEqualTo(3);
+        assertThat(stats.getAgeSum()).isEqualTo(ageSum);
+        assertThat(stats.getMinAge()).isEqualTo(minAge);
+        assertThat(stats.getMaxAge()).isEqualTo(maxAge);
+    }
+
+    private int ageOf(Long memberId) {
+        return transactionTemplate.execute(status -> em.find(Member.class, memberId).getAge());
+    }
+}
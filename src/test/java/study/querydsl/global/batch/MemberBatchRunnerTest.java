@@ -0,0 +1,105 @@
+package study.querydsl.global.batch;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.domain.member.entity.Member;
+import study.querydsl.domain.member.repository.MemberRepository;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * partition 이 여러 스레드에서 각자 커밋하므로 @Transactional 을 붙이지 않고 직접 정리한다.
+ */
+@SpringBootTest(properties = {
+        "batch.partitions=3",
+        "batch.threads=2",
+        "batch.chunk-size=2"
+})
+class MemberBatchRunnerTest {
+
+    private static final String JOB_NAME = "batch-runner-test";
+
+    @Autowired
+    MemberBatchRunner memberBatchRunner;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    BatchCheckpointRepository checkpointRepository;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    public void cleanUp() {
+        memberBatchRunner.reset(JOB_NAME);
+        // deleteAllInBatch 는 tombstone 을 남기므로(soft delete) SQL 로 지운다.
+        transactionTemplate.executeWithoutResult(status -> em.createNativeQuery("delete from member").executeUpdate());
+    }
+
+    @Test
+    public void resumeFromCheckpoint() {
+        for (int i = 0; i < 10; i++) {
+            memberRepository.save(new Member("batch" + i, i));
+        }
+        List<Long> ids = memberRepository.findAll().stream().map(Member::getId).toList();
+        Long failId = ids.get(5);
+
+        // 첫 실행은 failId 가 든 chunk 에서 한 번 실패한다. 실패한 chunk 는 롤백되어 기록되지 않는다.
+        RecordingJob job = new RecordingJob(failId);
+        BatchReport first = memberBatchRunner.run(job);
+
+        assertThat(first.partitions()).hasSize(3);
+        assertThat(first.isCompleted()).isFalse();
+        assertThat(job.processed).doesNotContain(failId);
+
+        // 다시 돌리면 실패한 partition 만 체크포인트부터 이어서 처리한다.
+        BatchReport second = memberBatchRunner.run(job);
+
+        assertThat(second.isCompleted()).isTrue();
+        assertThat(first.processed() + second.processed()).isEqualTo(ids.size());
+        assertThat(job.processed).containsExactlyInAnyOrderElementsOf(ids);
+        assertThat(checkpointRepository.findByJobNameOrderByPartitionNo(JOB_NAME))
+                .allMatch(BatchCheckpoint::isCompleted);
+
+        // 모두 끝난 작업은 다시 돌려도 처리할 것이 없다.
+        assertThat(memberBatchRunner.run(job).processed()).isZero();
+    }
+
+    static class RecordingJob implements MemberBatchJob {
+
+        private final Queue<Long> processed = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean failed = new AtomicBoolean();
+        private final Long failId;
+
+        RecordingJob(Long failId) {
+            this.failId = failId;
+        }
+
+        @Override
+        public String name() {
+            return JOB_NAME;
+        }
+
+        @Override
+        public void process(List<Member> chunk) {
+            if (chunk.stream().anyMatch(member -> member.getId().equals(failId)) && failed.compareAndSet(false, true)) {
+                throw new IllegalStateException("fail once at " + failId);
+            }
+            chunk.forEach(member -> processed.add(member.getId()));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package study.querydsl.global.bulkhead;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BulkheadLimiterTest {
+
+    @Test
+    public void rejectWhenQueueIsFull() throws Exception {
+        BulkheadLimiter heavy = new BulkheadLimiter("member-search-v3", limit(2, 1, Duration.ofMillis(200)));
+        assertThat(heavy.tryAcquire()).isTrue();
+        assertThat(heavy.tryAcquire()).isTrue();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<Boolean> queued = executor.submit(heavy::tryAcquire);
+        while (heavy.getWaitingCount() == 0) {
+            Thread.onSpinWait();
+        }
+
+        long start = System.nanoTime();
+        boolean acquired = heavy.tryAcquire();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(acquired).isFalse();
+        assertThat(elapsedMillis).isLessThan(100);
+
+        heavy.release();
+        assertThat(queued.get()).isTrue();
+        executor.shutdown();
+    }
+
+    @Test
+    public void saturatedBulkheadDoesNotSlowDownOthers() throws Exception {
+        BulkheadLimiter heavy = new BulkheadLimiter("member-search-v3", limit(4, 4, Duration.ofMillis(50)));
+        BulkheadLimiter cheap = new BulkheadLimiter("member-find", limit(4, 4, Duration.ofMillis(50)));
+
+        int workers = 32;
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        CountDownLatch hold = new CountDownLatch(1);
+        List<Future<Boolean>> heavyCalls = new ArrayList<>();
+        for (int i = 0; i < workers; i++) {
+            heavyCalls.add(executor.submit(() -> {
+                if (!heavy.tryAcquire()) {
+                    return false;
+                }
+                try {
+                    hold.await();
+                } finally {
+                    heavy.release();
+                }
+                return true;
+            }));
+        }
+
+        while (heavy.getActiveCount() < 4) {
+            Thread.onSpinWait();
+        }
+
+        long worst = 0;
+        for (int i = 0; i < 1_000; i++) {
+            long start = System.nanoTime();
+            assertThat(cheap.tryAcquire()).isTrue();
+            cheap.release();
+            worst = Math.max(worst, System.nanoTime() - start);
+        }
+        assertThat(TimeUnit.NANOSECONDS.toMillis(worst)).isLessThan(50);
+
+        hold.countDown();
+        long succeeded = 0;
+        for (Future<Boolean> call : heavyCalls) {
+            if (call.get()) {
+                succeeded++;
+            }
+        }
+        assertThat(succeeded).isLessThan(workers);
+        executor.shutdown();
+    }
+
+    private BulkheadProperties.Limit limit(int maxConcurrent, int maxWaiting, Duration maxWait) {
+        BulkheadProperties.Limit limit = new BulkheadProperties.Limit();
+        limit.setMaxConcurrent(maxConcurrent);
+        limit.setMaxWaiting(maxWaiting);
+        limit.setMaxWait(maxWait);
+        return limit;
+    }
+}
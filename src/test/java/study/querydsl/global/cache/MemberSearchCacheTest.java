@@ -0,0 +1,105 @@
+package study.querydsl.global.cache;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.domain.member.dto.MemberSearchCondition;
+import study.querydsl.domain.member.dto.MemberTeamDto;
+import study.querydsl.domain.member.entity.Member;
+import study.querydsl.domain.member.repository.MemberRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 캐시 무효화는 커밋 후에 일어나므로 이 테스트는 @Transactional 을 붙이지 않고 직접 정리한다.
+ */
+@SpringBootTest
+class MemberSearchCacheTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    public void cleanUp() {
+        // deleteAllInBatch 는 tombstone 을 남기므로(soft delete) SQL 로 지운다.
+        transactionTemplate.executeWithoutResult(status -> em.createNativeQuery("delete from member").executeUpdate());
+        cacheManager.getCache(CacheConfig.MEMBER_SEARCH).clear();
+    }
+
+    @Test
+    public void cachedUntilMemberChanges() {
+        memberRepository.save(new Member("cacheMember", 10));
+
+        Page<MemberTeamDto> first = memberRepository.searchPageComplex(condition("cacheMember"), PageRequest.of(0, 10));
+        Page<MemberTeamDto> second = memberRepository.searchPageComplex(condition("cacheMember"), PageRequest.of(0, 10));
+        assertThat(second).isSameAs(first);
+
+        memberRepository.save(new Member("cacheMember", 20));
+
+        Page<MemberTeamDto> third = memberRepository.searchPageComplex(condition("cacheMember"), PageRequest.of(0, 10));
+        assertThat(third).isNotSameAs(first);
+        assertThat(third.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    public void bulkUpdateEvictsCache() {
+        memberRepository.save(new Member("bulkMember", 10));
+
+        Page<MemberTeamDto> before = memberRepository.searchPageSimple(condition("bulkMember"), PageRequest.of(0, 10));
+        memberRepository.bulkAgePlus(10);
+        Page<MemberTeamDto> after = memberRepository.searchPageSimple(condition("bulkMember"), PageRequest.of(0, 10));
+
+        assertThat(before.getContent()).extracting("age").containsExactly(10);
+        assertThat(after.getContent()).extracting("age").containsExactly(11);
+    }
+
+    @Test
+    public void evictOncePerTransaction() {
+        Page<MemberTeamDto> before = memberRepository.searchPageComplex(condition("txMember"), PageRequest.of(0, 10));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            memberRepository.save(new Member("txMember", 10));
+            memberRepository.save(new Member("txMember", 20));
+
+            // 변경 전 결과는 트랜잭션 안에서 바로 지워진다.
+            assertThat(cachedEntries()).isZero();
+            assertThat(TransactionSynchronizationManager.getSynchronizations())
+                    .filteredOn(s -> s.getClass().getEnclosingClass() == MemberSearchCacheEvictor.class)
+                    .hasSize(1);
+
+            // 커밋 전 상태로 캐시에 들어간 결과는 커밋 뒤에 다시 지워진다.
+            memberRepository.searchPageComplex(condition("txMember"), PageRequest.of(0, 10));
+        });
+
+        Page<MemberTeamDto> after = memberRepository.searchPageComplex(condition("txMember"), PageRequest.of(0, 10));
+        assertThat(before.getTotalElements()).isZero();
+        assertThat(after.getTotalElements()).isEqualTo(2);
+    }
+
+    private long cachedEntries() {
+        return ((com.github.benmanes.caffeine.cache.Cache<?, ?>) cacheManager.getCache(CacheConfig.MEMBER_SEARCH).getNativeCache())
+                .asMap().size();
+    }
+
+    private MemberSearchCondition condition(String username) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername(username);
+        return condition;
+    }
+}
@@ -0,0 +1,38 @@
+package study.querydsl.global.datagen;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ZipfSamplerTest {
+
+    @Test
+    public void sameSeedSameSequence() {
+        ZipfSampler sampler = new ZipfSampler(1_000, 1.1);
+        SplittableRandom first = new SplittableRandom(42);
+        SplittableRandom second = new SplittableRandom(42);
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(sampler.sample(first)).isEqualTo(sampler.sample(second));
+        }
+    }
+
+    @Test
+    public void skewedTowardsLowRanks() {
+        ZipfSampler sampler = new ZipfSampler(1_000, 1.1);
+        SplittableRandom random = new SplittableRandom(42);
+        int[] counts = new int[1_001];
+
+        for (int i = 0; i < 100_000; i++) {
+            int rank = sampler.sample(random);
+            assertThat(rank).isBetween(1, 1_000);
+            counts[rank]++;
+        }
+
+        assertThat(counts[1]).isGreaterThan(counts[2]);
+        assertThat(counts[2]).isGreaterThan(counts[10]);
+        assertThat(counts[1]).isGreaterThan(counts[1_000] * 100);
+    }
+}
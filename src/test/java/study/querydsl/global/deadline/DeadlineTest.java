@@ -0,0 +1,156 @@
+package study.querydsl.global.deadline;
+
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.sql.SQLQueryFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.domain.member.dto.MemberSearchCondition;
+import study.querydsl.domain.member.dto.MemberTeamDto;
+import study.querydsl.domain.member.entity.Member;
+import study.querydsl.domain.member.repository.MemberRepository;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.global.deadline.DeadlineQueries.withShare;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(DeadlineTest.SlowQueryController.class)
+class DeadlineTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Test
+    public void withinDeadline() throws Exception {
+        mockMvc.perform(get("/v3/members").param("username", "deadline-ok").header("X-Request-Timeout", "5000"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void expiredDeadlineReturnsGatewayTimeout() throws Exception {
+        double before = timeouts();
+
+        // 쿼리를 보내기 전에 시간이 다 지났으면 쿼리를 보내지 않고 504 로 끝낸다.
+        mockMvc.perform(get("/test/deadline/late").header("X-Request-Timeout", "10"))
+                .andExpect(status().isGatewayTimeout());
+
+        assertThat(timeouts()).isEqualTo(before + 1);
+        assertThat(DeadlineContext.current()).isNull();
+    }
+
+    @Test
+    public void nonPositiveHeaderFallsBackToDefault() throws Exception {
+        double before = timeouts();
+
+        // 0 이하는 잘못된 header 처럼 무시하고 엔드포인트 기본값으로 돈다.
+        for (String header : new String[]{"0", "-1"}) {
+            mockMvc.perform(get("/v3/members").param("username", "deadline-default").header("X-Request-Timeout", header))
+                    .andExpect(status().isOk());
+        }
+
+        assertThat(timeouts()).isEqualTo(before);
+    }
+
+    @Test
+    public void databaseTimeoutReturnsGatewayTimeout() throws Exception {
+        double before = timeouts("database");
+
+        // 1.5초 남음 -> timeout 은 1초로 내림해서 걸리고, DB 가 statement 를 취소한다.
+        mockMvc.perform(get("/test/deadline/slow").header("X-Request-Timeout", "1500"))
+                .andExpect(status().isGatewayTimeout());
+
+        assertThat(timeouts("database")).isEqualTo(before + 1);
+    }
+
+    @Test
+    public void countSkippedWhenLessThanSecondRemains() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < 5; i++) {
+                em.persist(new Member("deadline-count", 20 + i));
+            }
+            em.flush();
+
+            MemberSearchCondition condition = new MemberSearchCondition();
+            condition.setUsername("deadline-count");
+
+            // count 에 1초를 걸면 남은 시간보다 오래 기다리게 되므로 건너뛴다. 꽉 찬 페이지라 total 은 하나 더 있다는 것만 안다.
+            Page<MemberTeamDto> uncounted = DeadlineContext.callWithin(Deadline.after(Duration.ofMillis(800)),
+                    () -> memberRepository.searchPageComplex(condition, PageRequest.of(0, 2)));
+            assertThat(uncounted).isInstanceOf(UncountedPage.class);
+            assertThat(uncounted.getContent()).hasSize(2);
+            assertThat(uncounted.getTotalElements()).isEqualTo(3);
+            assertThat(uncounted.hasNext()).isTrue();
+
+            // 캐시에 남지 않으므로 시간이 넉넉하면 제대로 센다.
+            Page<MemberTeamDto> counted = DeadlineContext.callWithin(Deadline.after(Duration.ofSeconds(5)),
+                    () -> memberRepository.searchPageComplex(condition, PageRequest.of(0, 2)));
+            assertThat(counted).isNotInstanceOf(UncountedPage.class);
+            assertThat(counted.getTotalElements()).isEqualTo(5);
+
+            status.setRollbackOnly();
+        });
+    }
+
+    private double timeouts() {
+        return timeouts("before-query");
+    }
+
+    private double timeouts(String stage) {
+        return meterRegistry.get("deadline.timeouts").tag("stage", stage).counter().count();
+    }
+
+    /**
+     * H2 에는 sleep 이 없어서 큰 범위를 세는 쿼리로 DB 쪽 timeout 을 낸다.
+     */
+    @RestController
+    @Transactional(readOnly = true)
+    static class SlowQueryController {
+
+        private final SQLQueryFactory sqlQueryFactory;
+
+        SlowQueryController(SQLQueryFactory sqlQueryFactory) {
+            this.sqlQueryFactory = sqlQueryFactory;
+        }
+
+        @GetMapping("/test/deadline/late")
+        public Long late() throws InterruptedException {
+            Thread.sleep(50);
+            return withShare(sqlQueryFactory.select(Expressions.numberTemplate(Long.class, "1")), 1.0).fetchOne();
+        }
+
+        @GetMapping("/test/deadline/slow")
+        public Long slow() {
+            return withShare(sqlQueryFactory.select(Expressions.numberTemplate(Long.class,
+                    "(select count(*) from system_range(1, 1000000000000) where mod(x, 7) = 0)")), 1.0)
+                    .fetchOne();
+        }
+    }
+}
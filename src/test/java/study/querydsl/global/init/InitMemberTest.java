@@ -0,0 +1,35 @@
+package study.querydsl.global.init;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.querydsl.domain.member.repository.MemberRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 샘플 데이터는 기동 후 백그라운드에서 들어가고, 다 들어간 뒤에야 readiness 가 ACCEPTING_TRAFFIC 이 된다.
+ */
+@SpringBootTest(properties = "spring.profiles.active=local")
+class InitMemberTest {
+
+    @Autowired
+    ApplicationAvailability applicationAvailability;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Test
+    public void readyAfterSeeding() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (applicationAvailability.getReadinessState() != ReadinessState.ACCEPTING_TRAFFIC
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThat(applicationAvailability.getReadinessState()).isEqualTo(ReadinessState.ACCEPTING_TRAFFIC);
+        assertThat(memberRepository.count()).isEqualTo(100);
+    }
+}
@@ -0,0 +1,31 @@
+package study.querydsl.global.nativeimage;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import study.querydsl.domain.member.dto.MemberDto;
+import study.querydsl.domain.member.dto.MemberTeamDto;
+import study.querydsl.domain.member.entity.QMember;
+import study.querydsl.global.p6spy.P6SpySqlFormatter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuerydslRuntimeHintsTest {
+
+    @Test
+    public void registersProjectionAndFormatterHints() throws Exception {
+        RuntimeHints hints = new RuntimeHints();
+        new QuerydslRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        // @QueryProjection 생성자, Projections.bean 의 setter, Projections.fields 의 필드
+        assertThat(RuntimeHintsPredicates.reflection()
+                .onConstructor(MemberTeamDto.class.getConstructor(Long.class, String.class, int.class, Long.class, String.class)))
+                .accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(MemberDto.class, "setUsername")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onField(MemberDto.class, "username")).accepts(hints);
+
+        assertThat(RuntimeHintsPredicates.reflection().onField(QMember.class, "member")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onConstructor(P6SpySqlFormatter.class.getConstructor())).accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource().forResource("spy.properties")).accepts(hints);
+    }
+}
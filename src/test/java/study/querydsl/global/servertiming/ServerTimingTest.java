@@ -0,0 +1,69 @@
+package study.querydsl.global.servertiming;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 검색 캐시를 꺼서 요청마다 SQL 이 나가게 한다.
+ */
+@SpringBootTest(properties = {
+        "server-timing.enabled=true",
+        "server-timing.trace-enabled=true",
+        "search-cache.maximum-weight=0"
+})
+@AutoConfigureMockMvc
+class ServerTimingTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    public void serverTimingHeader() throws Exception {
+        MvcResult result = mockMvc.perform(get("/v3/members").param("username", "timing"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String header = result.getResponse().getHeader(ServerTimingFilter.SERVER_TIMING);
+        assertThat(header)
+                .startsWith("total;dur=")
+                .contains("db;dur=", "app;dur=", "render;dur=")
+                .containsPattern("sql-1;dur=[0-9.]+;desc=\"select 0 rows\"");
+        assertThat(SqlTimeline.current()).isNull();
+
+        String traceId = result.getResponse().getHeader(ServerTimingFilter.TRACE_ID);
+        mockMvc.perform(get("/debug/sql-timeline/{id}", traceId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.uri").value("/v3/members"))
+                .andExpect(jsonPath("$.statements[0].kind").value("select"))
+                .andExpect(jsonPath("$.statements[0].sql").value(containsString("member")));
+    }
+
+    @Test
+    public void headerFormat() {
+        SqlTimeline timeline = SqlTimeline.start(1);
+        try {
+            timeline.statement("statement", "select m.member_id from member m", 2_000_000);
+            timeline.fetched(500_000, true);
+            timeline.fetched(100_000, false);
+            timeline.statement("statement", "select count(m.member_id) from member m", 1_000_000);
+
+            // maxEntries 를 넘은 count 쿼리는 db 합계에만 들어간다.
+            assertThat(timeline.toHeader(System.nanoTime()))
+                    .contains("db;dur=3.6;desc=\"2 statements\"")
+                    .contains("sql-1;dur=2.6;desc=\"select 1 rows\"")
+                    .doesNotContain("sql-2");
+        } finally {
+            SqlTimeline.clear();
+        }
+    }
+}
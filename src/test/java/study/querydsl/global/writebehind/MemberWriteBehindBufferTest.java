@@ -0,0 +1,170 @@
+package study.querydsl.global.writebehind;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.domain.member.entity.Member;
+import study.querydsl.domain.member.repository.MemberJpaRepository;
+import study.querydsl.domain.team.entity.Team;
+import study.querydsl.domain.team.service.TeamStatsService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * insert 는 flusher 스레드의 별도 트랜잭션에서 커밋되므로 @Transactional 없이 직접 정리한다.
+ */
+@SpringBootTest(properties = {
+        "write-behind.enabled=true",
+        "write-behind.capacity=64",
+        "write-behind.max-batch-size=32",
+        "write-behind.flush-interval=50ms",
+        "write-behind.offer-timeout=5s"
+})
+@AutoConfigureMockMvc
+class MemberWriteBehindBufferTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    MemberWriteBehindBuffer buffer;
+
+    @Autowired
+    TeamStatsService teamStatsService;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @AfterEach
+    public void cleanUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+        teamStatsService.reconcileAfterCommit();
+        teamStatsService.awaitPending();
+    }
+
+    @Test
+    public void acknowledgeAfterInsert() throws Exception {
+        Team team = transactionTemplate.execute(status -> {
+            Team teamA = new Team("TeamA");
+            em.persist(teamA);
+            return teamA;
+        });
+
+        CompletableFuture<Long> first = buffer.save(new Member("member1", 10, team));
+        CompletableFuture<Long> second = buffer.save("member2", 20, team.getId());
+        CompletableFuture<Long> noTeam = buffer.save("member3", 30, null);
+
+        List<Long> ids = List.of(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS), noTeam.get(5, TimeUnit.SECONDS));
+        assertThat(ids).doesNotContainNull().doesNotHaveDuplicates();
+
+        // ack 를 받으면 이미 커밋되어 있다.
+        assertThat(jdbcTemplate.queryForObject("select username from member where member_id = ?", String.class, ids.get(1)))
+                .isEqualTo("member2");
+
+        // 엔티티 리스너를 거치지 않아도 팀 집계가 따라온다.
+        teamStatsService.awaitPending();
+        assertThat(teamStatsService.find(team.getId()).get().getMemberCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void repositorySaveGoesThroughBuffer() throws Exception {
+        long batchesBefore = meterRegistry.get("write-behind.batch.size").summary().count();
+
+        Long memberId = memberJpaRepository.save("viaRepository", 15, null).get(5, TimeUnit.SECONDS);
+
+        assertThat(jdbcTemplate.queryForObject("select username from member where member_id = ?", String.class, memberId))
+                .isEqualTo("viaRepository");
+        assertThat(meterRegistry.get("write-behind.batch.size").summary().count()).isGreaterThan(batchesBefore);
+
+        // 트랜잭션 안에서는 그 트랜잭션에 묶이도록 버퍼를 거치지 않는다.
+        CompletableFuture<Long> inTransaction = transactionTemplate.execute(status -> memberJpaRepository.save("inTransaction", 15, null));
+        assertThat(inTransaction).isCompleted();
+        assertThat(jdbcTemplate.queryForObject("select username from member where member_id = ?", String.class, inTransaction.join()))
+                .isEqualTo("inTransaction");
+    }
+
+    @Test
+    public void unknownTeamIsBadRequest() throws Exception {
+        mockMvc.perform(post("/v1/members")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"noTeam\",\"age\":10,\"teamId\":999999}"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(post("/v1/members")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"viaController\",\"age\":10}"))
+                .andExpect(status().isCreated())
+                .andExpect(header().exists("Location"));
+    }
+
+    @Test
+    public void coalesceConcurrentSaves() throws Exception {
+        int threads = 8;
+        int perThread = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<CompletableFuture<Long>> acks = new ArrayList<>();
+        try {
+            List<CompletableFuture<List<CompletableFuture<Long>>>> producers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                producers.add(CompletableFuture.supplyAsync(() -> {
+                    List<CompletableFuture<Long>> mine = new ArrayList<>();
+                    for (int i = 0; i < perThread; i++) {
+                        // capacity(64) 를 넘겨도 거절되지 않고 flush 될 때까지 기다린다.
+                        mine.add(buffer.save("wb" + thread + "_" + i, i, null));
+                    }
+                    return mine;
+                }, executor));
+            }
+            for (CompletableFuture<List<CompletableFuture<Long>>> producer : producers) {
+                acks.addAll(producer.get(10, TimeUnit.SECONDS));
+            }
+            CompletableFuture.allOf(acks.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(acks).allSatisfy(ack -> assertThat(ack.join()).isNotNull());
+        assertThat(jdbcTemplate.queryForObject("select count(*) from member where username like 'wb%'", Long.class))
+                .isEqualTo(threads * perThread);
+
+        // 400 건이 400 번보다 훨씬 적은 insert 로 나갔다.
+        DistributionSummary batchSize = meterRegistry.get("write-behind.batch.size").summary();
+        assertThat(batchSize.max()).isGreaterThan(1);
+        assertThat(batchSize.max()).isLessThanOrEqualTo(32);
+    }
+}